@@ -0,0 +1,114 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-key insert()/contains() against insertAll()/getAll() on the same KEYS
+ * keys, handed over in batches of `batch` keys. Every score is keys per
+ * second. Batch results include sorting each batch. The per-key runs ignore
+ * `batch`.
+ *
+ * insertEach / insertAll   build a fresh tree from the stream
+ * containsEach / getAll    probe a tree built from the stream with the
+ *                          same stream
+ *
+ * gradle jmh -PjmhArgs="BatchBenchmark -p batch=16,65536 -p stream=RANDOM"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+    static final int KEYS = 1 << 20;
+
+    @Param({"16", "256", "4096", "65536"})
+    public int batch;
+
+    @Param({"64"})
+    public int order;
+
+    @Param({"RANDOM", "ZIPFIAN", "SEQUENTIAL"})
+    public KeyStreams stream;
+
+    private int[][] batches;
+    private BPlusTreeDemo.BPlusTree tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] keys = stream.generate(KEYS, 42);
+        batches = new int[KEYS / batch][];
+        for (int b = 0; b < batches.length; b++) {
+            batches[b] = Arrays.copyOfRange(keys, b * batch, (b + 1) * batch);
+        }
+        tree = new BPlusTreeDemo.BPlusTree(order);
+        tree.insertAll(keys);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public BPlusTreeDemo.BPlusTree insertEach() {
+        BPlusTreeDemo.BPlusTree fresh = new BPlusTreeDemo.BPlusTree(order);
+        for (int[] keys : batches) {
+            for (int key : keys) {
+                fresh.insert(key);
+            }
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public BPlusTreeDemo.BPlusTree insertAll() {
+        BPlusTreeDemo.BPlusTree fresh = new BPlusTreeDemo.BPlusTree(order);
+        for (int[] keys : batches) {
+            fresh.insertAll(keys);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int containsEach() {
+        int hits = 0;
+        for (int[] keys : batches) {
+            for (int key : keys) {
+                if (tree.contains(key)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int getAll() {
+        int hits = 0;
+        for (int[] keys : batches) {
+            for (boolean found : tree.getAll(keys)) {
+                if (found) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Fill of the benchmarked tree, reported as extra result columns (in %).
+ *
+ * JMH adds up EVENTS counters over the measurement iterations, so each
+ * iteration records its share and the result column is the mean fill.
+ */
+@AuxCounters(AuxCounters.Type.EVENTS)
+@State(Scope.Thread)
+public class FillCounters {
+
+    public double leafFillPct;
+    public double totalFillPct;
+
+    private int iterations;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        iterations = params.getMeasurement().getCount();
+    }
+
+    void record(BPlusTreeDemo.BPlusTree tree) {
+        FragmentationSnapshot snapshot = tree.fragmentation();
+        leafFillPct = snapshot.leafUtilization() * 100 / iterations;
+        totalFillPct = snapshot.utilization() * 100 / iterations;
+    }
+}
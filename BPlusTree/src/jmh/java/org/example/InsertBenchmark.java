@@ -0,0 +1,73 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of BPlusTreeDemo.BPlusTree: each invocation builds a
+ * fresh tree from a stream of KEYS keys. Next to ops/s, the results carry
+ * the leaf and overall fill of the last tree built (FillCounters).
+ *
+ * gradle jmh -PjmhArgs="InsertBenchmark -p order=64 -p stream=RANDOM"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class InsertBenchmark {
+
+    static final int KEYS = 1 << 20;
+
+    @Param({"8", "16", "32", "64", "128", "256", "512"})
+    public int order;
+
+    @Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "NOISY", "TENANTS"})
+    public KeyStreams stream;
+
+    @Param({"ADAPTIVE", "BALANCED"})
+    public SplitPolicies policy;
+
+    private int[] keys;
+    private BPlusTreeDemo.BPlusTree last;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = stream.generate(KEYS, 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public BPlusTreeDemo.BPlusTree insert() {
+        BPlusTreeDemo.BPlusTree tree = new BPlusTreeDemo.BPlusTree(order, BPlusTreeListener.NONE, policy.policy);
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        last = tree;
+        return tree;
+    }
+
+    // Outside the timed loop: one walk over the last tree of the iteration.
+    @TearDown(Level.Iteration)
+    public void measureFill(FillCounters fill) {
+        if (last != null) {
+            fill.record(last);
+            last = null;
+        }
+    }
+}
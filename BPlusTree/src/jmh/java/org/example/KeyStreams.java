@@ -0,0 +1,85 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Insert/lookup key streams for the JMH benchmarks. Every stream is
+ * deterministic for a given seed.
+ *
+ * SEQUENTIAL  0, 1, 2, ... (right-edge appends)
+ * RANDOM      a shuffle of the same keys
+ * ZIPFIAN     draws from n keys with skew 0.99 (YCSB); hot keys are scattered
+ *             over the key space, and the stream repeats them
+ * NOISY       sequential with 5% of positions swapped at random (late or
+ *             out-of-order arrivals)
+ * TENANTS     16 ascending streams, one per tenant (tenant id in the high
+ *             bits), interleaved at random
+ */
+public enum KeyStreams {
+    SEQUENTIAL,
+    RANDOM,
+    ZIPFIAN,
+    NOISY,
+    TENANTS;
+
+    private static final double ZIPF_THETA = 0.99;
+    private static final double NOISE = 0.05;
+    private static final int TENANT_COUNT = 16;
+
+    public int[] generate(int n, long seed) {
+        Random random = new Random(seed);
+        int[] keys = new int[n];
+        switch (this) {
+            case SEQUENTIAL:
+                for (int i = 0; i < n; i++) keys[i] = i;
+                break;
+            case RANDOM:
+                for (int i = 0; i < n; i++) keys[i] = i;
+                for (int i = n - 1; i > 0; i--) swap(keys, i, random.nextInt(i + 1));
+                break;
+            case ZIPFIAN:
+                zipfian(keys, random);
+                break;
+            case NOISY:
+                for (int i = 0; i < n; i++) keys[i] = i;
+                for (int s = (int) (n * NOISE); s > 0; s--) swap(keys, random.nextInt(n), random.nextInt(n));
+                break;
+            case TENANTS:
+                int[] next = new int[TENANT_COUNT];
+                for (int i = 0; i < n; i++) {
+                    int tenant = random.nextInt(TENANT_COUNT);
+                    keys[i] = tenant << 26 | next[tenant]++;
+                }
+                break;
+        }
+        return keys;
+    }
+
+    // Gray et al., "Quickly generating billion-record synthetic databases",
+    // as used by YCSB. Rank r is mapped to key r * golden ratio (a bijection
+    // on int), so hot keys do not all sit in the first leaves.
+    private static void zipfian(int[] keys, Random random) {
+        int n = keys.length;
+        double zetaN = 0;
+        for (int i = 1; i <= n; i++) zetaN += 1 / Math.pow(i, ZIPF_THETA);
+        double zeta2 = 1 + 1 / Math.pow(2, ZIPF_THETA);
+        double alpha = 1 / (1 - ZIPF_THETA);
+        double eta = (1 - Math.pow(2.0 / n, 1 - ZIPF_THETA)) / (1 - zeta2 / zetaN);
+
+        for (int i = 0; i < n; i++) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            long rank;
+            if (uz < 1) rank = 0;
+            else if (uz < zeta2) rank = 1;
+            else rank = Math.min(n - 1, (long) (n * Math.pow(eta * u - eta + 1, alpha)));
+            keys[i] = (int) rank * 0x9E3779B1;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
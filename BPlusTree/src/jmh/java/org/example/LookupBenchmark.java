@@ -0,0 +1,70 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookup throughput of BPlusTreeDemo.BPlusTree. The tree is built by
+ * inserting a stream of KEYS keys; lookups then replay the same stream, so
+ * ZIPFIAN probes hit hot keys and SEQUENTIAL probes walk the leaves in order.
+ * Fill of the tree is reported alongside (FillCounters).
+ *
+ * gradle jmh -PjmhArgs="LookupBenchmark -p order=64,256"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class LookupBenchmark {
+
+    static final int KEYS = 1 << 20;
+
+    @Param({"8", "16", "32", "64", "128", "256", "512"})
+    public int order;
+
+    @Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "NOISY", "TENANTS"})
+    public KeyStreams stream;
+
+    @Param({"ADAPTIVE", "BALANCED"})
+    public SplitPolicies policy;
+
+    private int[] probes;
+    private BPlusTreeDemo.BPlusTree tree;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        probes = stream.generate(KEYS, 42);
+        tree = new BPlusTreeDemo.BPlusTree(order, BPlusTreeListener.NONE, policy.policy);
+        for (int key : probes) {
+            tree.insert(key);
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        int key = probes[next];
+        next = (next + 1) & (KEYS - 1);
+        return tree.contains(key);
+    }
+
+    @TearDown(Level.Iteration)
+    public void measureFill(FillCounters fill) {
+        fill.record(tree);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Random point lookups against the same key set in different layouts:
+ *
+ * BPLUS_17       BPlusTreeDemo.BPlusTree, order 17 (16 keys per node like
+ *                CACHE_LINE), full nodes, binary search per node
+ * BPLUS_64       the same at order 64
+ * CACHE_LINE     CacheLineBPlusTree: one-line leaves, two-line internal nodes,
+ *                branch-free node search
+ * EYTZINGER      EytzingerSnapshot: 16-key blocks in implicit 17-ary heap order
+ * SORTED_ARRAY   Arrays.binarySearch over the sorted keys
+ *
+ * Keys are the even numbers 0 .. 2(keys - 1) and probes are uniform over
+ * [0, 2 * keys), so half of the lookups miss.
+ *
+ * gradle jmh -PjmhArgs="SearchLayoutBenchmark -p keys=1000000,10000000"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Thread)
+public class SearchLayoutBenchmark {
+
+    private static final int PROBES = 1 << 20;
+
+    public enum Layout {
+        BPLUS_17, BPLUS_64, CACHE_LINE, EYTZINGER, SORTED_ARRAY
+    }
+
+    @Param({"1000000", "10000000", "100000000"})
+    public int keys;
+
+    @Param({"BPLUS_17", "BPLUS_64", "CACHE_LINE", "EYTZINGER", "SORTED_ARRAY"})
+    public Layout layout;
+
+    private IntPredicate index;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (layout) {
+            case BPLUS_17:
+            case BPLUS_64: {
+                int order = layout == Layout.BPLUS_17 ? 17 : 64;
+                BPlusTreeDemo.BPlusTree tree = BPlusTreeDemo.BPlusTree.bulkLoad(order, evenKeys(), 1.0);
+                index = tree::contains;
+                break;
+            }
+            case CACHE_LINE: {
+                CacheLineBPlusTree tree = new CacheLineBPlusTree();
+                evenKeys().forEach(tree::insert);
+                index = tree::contains;
+                break;
+            }
+            case EYTZINGER: {
+                EytzingerSnapshot snapshot = EytzingerSnapshot.of(evenKeys().toArray());
+                index = snapshot::contains;
+                break;
+            }
+            case SORTED_ARRAY: {
+                int[] sorted = evenKeys().toArray();
+                index = key -> Arrays.binarySearch(sorted, key) >= 0;
+                break;
+            }
+        }
+        probes = new SplittableRandom(7).ints(PROBES, 0, 2 * keys).toArray();
+    }
+
+    private IntStream evenKeys() {
+        return IntStream.range(0, keys).map(i -> 2 * i);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        int key = probes[next];
+        next = (next + 1) & (PROBES - 1);
+        return index.test(key);
+    }
+}
@@ -0,0 +1,20 @@
+package org.example;
+
+/**
+ * SplitPolicy choices for the benchmarks' `policy` parameter.
+ */
+public enum SplitPolicies {
+    ADAPTIVE(SplitPolicy.ADAPTIVE),
+    // Right-edge runs keep the left node completely full
+    ADAPTIVE_FULL(SplitPolicy.adaptive(2, 1.0)),
+    BALANCED(SplitPolicy.BALANCED),
+    // What splitLeafFill/splitInternalFill used to do: the last two keys of a
+    // sorted node always compare as ascending, so every split was right-edge.
+    LAST_TWO_KEYS((leaf, keyCount, lastInsert, run) -> keyCount - 1);
+
+    final SplitPolicy policy;
+
+    SplitPolicies(SplitPolicy policy) {
+        this.policy = policy;
+    }
+}
@@ -0,0 +1,211 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.BiConsumer;
+
+/**
+ * B+ tree index from K to V ordered by a Comparator.
+ *
+ * Same node scheme as BPlusTreeDemo.BPlusTree (fixed-capacity arrays sized from
+ * `order`, binary search, leaf chain), but leaves carry a value next to each
+ * key. Appending past a leaf's last key keeps the left node full, otherwise
+ * nodes split in the middle. See LongBPlusMap for primitive long keys and
+ * BytesBPlusMap for byte[]/String keys.
+ */
+public class BPlusMap<K, V> {
+
+    static final class Node {
+        final boolean isLeaf;
+        final Object[] keys;
+        final Object[] values;  // leaves only
+        final Node[] children;  // internal nodes only
+        int keyCount;
+        Node next; // leaf chain
+
+        Node(boolean isLeaf, int order) {
+            this.isLeaf = isLeaf;
+            this.keys = new Object[order];
+            this.values = isLeaf ? new Object[order] : null;
+            this.children = isLeaf ? null : new Node[order + 1];
+        }
+    }
+
+    private final int order;
+    private final Comparator<? super K> comparator;
+    private Node root;
+    private long size;
+
+    // Separator produced by the most recent split
+    private Object splitKey;
+    // Value replaced by the most recent put, if the key was present
+    private Object previous;
+
+    public BPlusMap(int order, Comparator<? super K> comparator) {
+        if (order < 3) {
+            throw new IllegalArgumentException("order must be at least 3: " + order);
+        }
+        this.order = order;
+        this.comparator = comparator;
+        this.root = new Node(true, order);
+    }
+
+    // ---------- PUT ----------
+    // Returns the value previously stored under `key`, or null.
+    public V put(K key, V value) {
+        previous = null;
+        Node right = putInternal(root, key, value);
+        if (right != null) {
+            Node newRoot = new Node(false, order);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.keyCount = 1;
+            root = newRoot;
+        }
+        @SuppressWarnings("unchecked")
+        V old = (V) previous;
+        return old;
+    }
+
+    private Node putInternal(Node node, K key, V value) {
+        if (node.isLeaf) {
+            int n = node.keyCount;
+            int idx = lowerBound(node, key);
+            if (idx < n && compare(node.keys[idx], key) == 0) {
+                previous = node.values[idx];
+                node.values[idx] = value;
+                return null;
+            }
+            System.arraycopy(node.keys, idx, node.keys, idx + 1, n - idx);
+            System.arraycopy(node.values, idx, node.values, idx + 1, n - idx);
+            node.keys[idx] = key;
+            node.values[idx] = value;
+            node.keyCount = n + 1;
+            size++;
+            return node.keyCount >= order ? splitLeaf(node, idx == n) : null;
+        }
+
+        int idx = upperBound(node, key);
+        Node right = putInternal(node.children[idx], key, value);
+        if (right != null) {
+            int n = node.keyCount;
+            System.arraycopy(node.keys, idx, node.keys, idx + 1, n - idx);
+            System.arraycopy(node.children, idx + 1, node.children, idx + 2, n - idx);
+            node.keys[idx] = splitKey;
+            node.children[idx + 1] = right;
+            node.keyCount = n + 1;
+            if (node.keyCount >= order) {
+                return splitInternal(node, idx == n);
+            }
+        }
+        return null;
+    }
+
+    private Node splitLeaf(Node leaf, boolean appended) {
+        int n = leaf.keyCount;
+        int mid = appended ? n - 1 : n / 2;
+        Node right = new Node(true, order);
+        System.arraycopy(leaf.keys, mid, right.keys, 0, n - mid);
+        System.arraycopy(leaf.values, mid, right.values, 0, n - mid);
+        Arrays.fill(leaf.keys, mid, n, null);
+        Arrays.fill(leaf.values, mid, n, null);
+        right.keyCount = n - mid;
+        leaf.keyCount = mid;
+        right.next = leaf.next;
+        leaf.next = right;
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    private Node splitInternal(Node node, boolean appended) {
+        int n = node.keyCount;
+        // Right-edge append keeps one key on the right so it has two children
+        int mid = appended ? n - 2 : n / 2;
+        int moved = n - mid - 1;
+        Node right = new Node(false, order);
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, moved);
+        System.arraycopy(node.children, mid + 1, right.children, 0, moved + 1);
+        right.keyCount = moved;
+        splitKey = node.keys[mid];
+        Arrays.fill(node.keys, mid, n, null);
+        Arrays.fill(node.children, mid + 1, n + 1, null);
+        node.keyCount = mid;
+        return right;
+    }
+
+    // ---------- QUERY ----------
+    public V get(K key) {
+        Node leaf = findLeaf(key);
+        int idx = lowerBound(leaf, key);
+        if (idx < leaf.keyCount && compare(leaf.keys[idx], key) == 0) {
+            @SuppressWarnings("unchecked")
+            V value = (V) leaf.values[idx];
+            return value;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        Node leaf = findLeaf(key);
+        int idx = lowerBound(leaf, key);
+        return idx < leaf.keyCount && compare(leaf.keys[idx], key) == 0;
+    }
+
+    // Calls `action` for every entry with from <= key <= to, in key order.
+    @SuppressWarnings("unchecked")
+    public void forEachInRange(K from, K to, BiConsumer<? super K, ? super V> action) {
+        Node leaf = root;
+        while (!leaf.isLeaf) {
+            leaf = leaf.children[lowerBound(leaf, from)];
+        }
+        for (int i = lowerBound(leaf, from); leaf != null; leaf = leaf.next, i = 0) {
+            for (; i < leaf.keyCount; i++) {
+                if (compare(leaf.keys[i], to) > 0) {
+                    return;
+                }
+                action.accept((K) leaf.keys[i], (V) leaf.values[i]);
+            }
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // ---------- HELPERS ----------
+    private Node findLeaf(K key) {
+        Node node = root;
+        while (!node.isLeaf) {
+            node = node.children[upperBound(node, key)];
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object stored, K key) {
+        return comparator.compare((K) stored, key);
+    }
+
+    // First index whose key is >= key.
+    private int lowerBound(Node node, K key) {
+        int lo = 0, hi = node.keyCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(node.keys[mid], key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First index whose key is > key.
+    private int upperBound(Node node, K key) {
+        int lo = 0, hi = node.keyCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(node.keys[mid], key) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
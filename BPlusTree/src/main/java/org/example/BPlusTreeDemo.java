@@ -1,90 +1,184 @@
+package org.example;
+
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class BPlusTreeDemo {
 
     // ================= NODE =================
     static class BPlusTreeNode {
         boolean isLeaf;
-        List<Integer> keys = new ArrayList<>();
-        List<BPlusTreeNode> children = new ArrayList<>();
+        // Fixed-capacity arrays sized from the tree order. A node can hold
+        // `order` keys (and order + 1 children) for the moment between the
+        // overflowing insert and the split that follows it.
+        int[] keys;
+        int keyCount;
+        BPlusTreeNode[] children; // null for leaves
         BPlusTreeNode next; // leaf chain
+        // Insert pattern for the SplitPolicy: position of the latest insert
+        // and how many inserts in a row landed right next to the one before.
+        int lastInsert = -1;
+        int run;
 
-        BPlusTreeNode(boolean isLeaf) {
+        BPlusTreeNode(boolean isLeaf, int order) {
             this.isLeaf = isLeaf;
+            this.keys = new int[order];
+            this.children = isLeaf ? null : new BPlusTreeNode[order + 1];
+        }
+
+        // Called after a key is inserted at `pos`. Ascending keys land at
+        // lastInsert + 1, descending keys at lastInsert (pushing it right).
+        void recordInsert(int pos) {
+            run = pos == lastInsert + 1 || pos == lastInsert ? run + 1 : 0;
+            lastInsert = pos;
+        }
+
+        String keysToString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < keyCount; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(keys[i]);
+            }
+            return sb.append(']').toString();
+        }
+    }
+
+    // ================= CURSOR =================
+    // Forward iterator over [from, to] that walks the leaf chain. Keys are
+    // handed out as primitives straight from the leaf arrays, so a scan
+    // allocates the cursor and nothing else.
+    static class Cursor implements PrimitiveIterator.OfInt {
+        private BPlusTreeNode leaf;
+        private int pos;
+        private final int to;
+
+        Cursor(BPlusTreeNode leaf, int pos, int to) {
+            this.leaf = leaf;
+            this.pos = pos;
+            this.to = to;
+            skipExhaustedLeaves();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && leaf.keys[pos] <= to;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int key = leaf.keys[pos++];
+            skipExhaustedLeaves();
+            return key;
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && pos >= leaf.keyCount) {
+                leaf = leaf.next;
+                pos = 0;
+            }
         }
     }
 
     // ================= TREE =================
     static class BPlusTree {
         private final int order;
+        // Fewest keys a non-root node may hold before remove() rebalances it.
+        // Two siblings at or below this always fit in one node when merged.
+        private final int minKeys;
+        private final BPlusTreeListener listener;
+        private final SplitPolicy splitPolicy;
         private BPlusTreeNode root;
 
+        // Separator produced by the most recent split. insertInternal returns
+        // the new right sibling and the caller reads the key from here.
+        private int splitKey;
+        // Set by insertIntoLeaf when the key was already present.
+        private boolean duplicate;
+
         public BPlusTree(int order) {
+            this(order, BPlusTreeListener.NONE);
+        }
+
+        // verbose prints every structural change (BPlusTreeListener.logging()).
+        public BPlusTree(int order, boolean verbose) {
+            this(order, verbose ? BPlusTreeListener.logging() : BPlusTreeListener.NONE);
+        }
+
+        public BPlusTree(int order, BPlusTreeListener listener) {
+            this(order, listener, SplitPolicy.ADAPTIVE);
+        }
+
+        // Order 3 is the smallest that leaves a non-root node at least one key
+        // and a sibling to borrow from or merge with on delete.
+        public BPlusTree(int order, BPlusTreeListener listener, SplitPolicy splitPolicy) {
+            if (order < 3) {
+                throw new IllegalArgumentException("order must be at least 3: " + order);
+            }
             this.order = order;
-            this.root = new BPlusTreeNode(true);
-            log("Created B+ Tree with order = " + order);
+            this.minKeys = (order - 1) / 2;
+            this.listener = listener;
+            this.splitPolicy = splitPolicy;
+            this.root = new BPlusTreeNode(true, order);
         }
 
         // ---------- INSERT ----------
-        public void insert(int key) {
-            log("\n==============================");
-            log("INSERT KEY: " + key);
-
+        // Returns false (and leaves the tree unchanged) if the key is already present.
+        public boolean insert(int key) {
+            duplicate = false;
             BPlusTreeNode splitNode = insertInternal(root, key);
+            if (duplicate) {
+                return false;
+            }
 
             if (splitNode != null) {
-                int promotedKey = splitNode.keys.get(0);
-                BPlusTreeNode newRoot = new BPlusTreeNode(false);
-                newRoot.keys.add(promotedKey);
-                newRoot.children.add(root);
-                
-                if (!splitNode.isLeaf) {
-                    splitNode.keys.remove(0);
-                }
-                
-                newRoot.children.add(splitNode);
+                int promotedKey = splitKey;
+                BPlusTreeNode newRoot = new BPlusTreeNode(false, order);
+                newRoot.keys[0] = promotedKey;
+                newRoot.children[0] = root;
+                newRoot.children[1] = splitNode;
+                newRoot.keyCount = 1;
                 root = newRoot;
-                log("🌱 Root split → New root created with key [" + promotedKey + "]");
+                listener.promoted(promotedKey);
+                listener.rootGrew(height());
             }
-
-            //logTree();
-            logTreeFixed();
-            logFragmentationNice();
+            return true;
         }
 
         private BPlusTreeNode insertInternal(BPlusTreeNode node, int key) {
             if (node.isLeaf) {
-                log("Reached LEAF node: " + node.keys);
-                insertIntoLeaf(node, key);
+                if (!insertIntoLeaf(node, key)) {
+                    duplicate = true;
+                    return null;
+                }
 
-                if (node.keys.size() >= order) {
-                    log("⚠ Leaf overflow → splitting leaf");
+                if (node.keyCount >= order) {
                     return splitLeafFill(node);
                 }
                 return null;
             }
 
             int idx = findChildIndex(node, key);
-            log("At INTERNAL node " + node.keys + " → going to child " + idx);
-
             BPlusTreeNode splitNode =
-                    insertInternal(node.children.get(idx), key);
+                    insertInternal(node.children[idx], key);
 
             if (splitNode != null) {
-                int promotedKey = splitNode.keys.get(0);
-                log("⬆ Promoting key " + promotedKey + " to internal node");
-
-                node.keys.add(idx, promotedKey);
-                
-                if (!splitNode.isLeaf) {
-                    splitNode.keys.remove(0);
-                }
-                
-                node.children.add(idx + 1, splitNode);
+                int promotedKey = splitKey;
+                listener.promoted(promotedKey);
+
+                int n = node.keyCount;
+                System.arraycopy(node.keys, idx, node.keys, idx + 1, n - idx);
+                System.arraycopy(node.children, idx + 1, node.children, idx + 2, n - idx);
+                node.keys[idx] = promotedKey;
+                node.children[idx + 1] = splitNode;
+                node.keyCount = n + 1;
+                node.recordInsert(idx);
             }
 
-            if (node.keys.size() >= order) {
-                log("⚠ Internal node overflow → splitting internal node");
+            if (node.keyCount >= order) {
                 return splitInternalFill(node);
             }
 
@@ -92,343 +186,621 @@ public class BPlusTreeDemo {
         }
 
         // ---------- LEAF OPS ----------
-        private void insertIntoLeaf(BPlusTreeNode leaf, int key) {
-            int idx = 0;
-            while (idx < leaf.keys.size() && key > leaf.keys.get(idx)) {
-                idx++;
+        private boolean insertIntoLeaf(BPlusTreeNode leaf, int key) {
+            int idx = lowerBound(leaf.keys, leaf.keyCount, key);
+            if (idx < leaf.keyCount && leaf.keys[idx] == key) {
+                return false;
             }
-            leaf.keys.add(idx, key);
-            log("Inserted key " + key + " into leaf at position " + idx);
+            System.arraycopy(leaf.keys, idx, leaf.keys, idx + 1, leaf.keyCount - idx);
+            leaf.keys[idx] = key;
+            leaf.keyCount++;
+            leaf.recordInsert(idx);
+            return true;
         }
 
-        private BPlusTreeNode splitLeaf(BPlusTreeNode leaf) {
-            int mid = leaf.keys.size() / 2;
+        private BPlusTreeNode splitLeafFill(BPlusTreeNode leaf) {
+            int n = leaf.keyCount;
+            int mid = splitPoint(leaf, 1, n - 1);
+            BPlusTreeNode right = moveLeafTail(leaf, mid);
+            handOverPattern(leaf, right, mid);
+            listener.leafSplit(leaf.keyCount, right.keyCount, mid != n / 2);
+            return right;
+        }
 
-            BPlusTreeNode newLeaf = new BPlusTreeNode(true);
-            newLeaf.keys.addAll(leaf.keys.subList(mid, leaf.keys.size()));
+        // Asks the policy and clamps its answer to [min, max].
+        private int splitPoint(BPlusTreeNode node, int min, int max) {
+            int mid = splitPolicy.splitPoint(node.isLeaf, node.keyCount, node.lastInsert, node.run);
+            return Math.max(min, Math.min(max, mid));
+        }
 
-            leaf.keys = new ArrayList<>(leaf.keys.subList(0, mid));
+        // The half that got the newest key keeps the insert pattern; the other starts fresh.
+        private static void handOverPattern(BPlusTreeNode left, BPlusTreeNode right, int firstMoved) {
+            if (left.lastInsert >= firstMoved) {
+                right.lastInsert = left.lastInsert - firstMoved;
+                right.run = left.run;
+                left.lastInsert = -1;
+                left.run = 0;
+            }
+        }
+
+        // Moves keys[mid..keyCount) into a new right sibling and links it into the leaf chain.
+        private BPlusTreeNode moveLeafTail(BPlusTreeNode leaf, int mid) {
+            BPlusTreeNode newLeaf = new BPlusTreeNode(true, order);
+            int moved = leaf.keyCount - mid;
+            System.arraycopy(leaf.keys, mid, newLeaf.keys, 0, moved);
+            newLeaf.keyCount = moved;
+            leaf.keyCount = mid;
 
             newLeaf.next = leaf.next;
             leaf.next = newLeaf;
-
-            log("Leaf split:");
-            log("  Left leaf : " + leaf.keys);
-            log("  Right leaf: " + newLeaf.keys);
-
+            splitKey = newLeaf.keys[0];
             return newLeaf;
         }
 
-        private BPlusTreeNode splitLeafFill(BPlusTreeNode leaf) {
-            // Determine the split point based on the last key in the leaf.
-            // We use leaf.keys.size() - 1 because the overflow key was
-            // already added to the list in insertIntoLeaf().
-            int lastKeyIndex = leaf.keys.size() - 1;
-            int secondToLastKey = leaf.keys.get(lastKeyIndex - 1);
-            int newestKey = leaf.keys.get(lastKeyIndex);
-
-            int mid;
-
-            // ASYMMETRIC STRATEGY:
-            // If the newest key is greater than the previous max,
-            // keep the current node full and put only the newest key in the new node.
-            if (newestKey > secondToLastKey) {
-                log("✨ Asymmetric split detected (Sequential Insertion)");
-                mid = lastKeyIndex;
-            } else {
-                // BALANCED STRATEGY:
-                // Standard middle split for random data
-                log("⚖ Balanced split detected (Random Insertion)");
-                mid = leaf.keys.size() / 2;
+
+        // ---------- INTERNAL OPS ----------
+        private BPlusTreeNode splitInternalFill(BPlusTreeNode node) {
+            int n = node.keyCount;
+            // Both halves keep at least one key, so two children each (a
+            // one-child node has no sibling to borrow from or merge with on delete).
+            int mid = splitPoint(node, 1, n - 2);
+            BPlusTreeNode right = moveInternalTail(node, mid);
+            if (node.lastInsert == mid) {
+                // The newest key was promoted
+                node.lastInsert = -1;
+                node.run = 0;
             }
+            handOverPattern(node, right, mid + 1);
+            listener.internalSplit(node.keyCount, right.keyCount, mid != n / 2);
+            return right;
+        }
 
-            BPlusTreeNode newLeaf = new BPlusTreeNode(true);
-            newLeaf.keys.addAll(leaf.keys.subList(mid, leaf.keys.size()));
+        // Promotes keys[mid] and moves keys after it (and the children to their
+        // right) into a new right sibling. Children are always 1 more than keys.
+        private BPlusTreeNode moveInternalTail(BPlusTreeNode node, int mid) {
+            int n = node.keyCount;
+            BPlusTreeNode right = new BPlusTreeNode(false, order);
 
-            leaf.keys = new ArrayList<>(leaf.keys.subList(0, mid));
+            int movedKeys = n - mid - 1;
+            System.arraycopy(node.keys, mid + 1, right.keys, 0, movedKeys);
+            System.arraycopy(node.children, mid + 1, right.children, 0, movedKeys + 1);
+            right.keyCount = movedKeys;
 
-            newLeaf.next = leaf.next;
-            leaf.next = newLeaf;
+            splitKey = node.keys[mid];
+            Arrays.fill(node.children, mid + 1, n + 1, null);
+            node.keyCount = mid;
 
-            log("Leaf split:");
-            log("  Left leaf : " + leaf.keys);
-            log("  Right leaf: " + newLeaf.keys);
+            return right;
+        }
 
-            return newLeaf;
+        // ---------- BULK LOAD ----------
+        // Builds a tree from strictly ascending keys in one pass: leaves are
+        // packed left to right, then each internal level is built from the
+        // one below it. fillFactor (0, 1] is the share of a node's resting
+        // capacity (order - 1 keys) to use, leaving room for later inserts.
+        // Like the asymmetric split, every node is packed to that target and
+        // only the rightmost node on each level holds the remainder.
+        public static BPlusTree bulkLoad(int order, int[] sortedKeys, double fillFactor) {
+            BulkLoader loader = new BulkLoader(order, fillFactor);
+            for (int key : sortedKeys) {
+                loader.accept(key);
+            }
+            return loader.finish();
         }
 
+        public static BPlusTree bulkLoad(int order, IntStream sortedKeys, double fillFactor) {
+            BulkLoader loader = new BulkLoader(order, fillFactor);
+            sortedKeys.sequential().forEachOrdered(loader);
+            return loader.finish();
+        }
 
-        // ---------- INTERNAL OPS ----------
-        private BPlusTreeNode splitInternalBalanced(BPlusTreeNode node) {
-            int mid = node.keys.size() / 2;
-            int promoteKey = node.keys.get(mid);
+        private static final class BulkLoader implements IntConsumer {
+            private final BPlusTree tree;
+            private final int leafFill;
+            private final int internalFanout;
+            private final List<BPlusTreeNode> leaves = new ArrayList<>();
+            private BPlusTreeNode leaf;
+            private long count;
+            private int lastKey;
+
+            BulkLoader(int order, double fillFactor) {
+                if (fillFactor <= 0 || fillFactor > 1) {
+                    throw new IllegalArgumentException("fillFactor must be in (0, 1]: " + fillFactor);
+                }
+                this.tree = new BPlusTree(order, false);
+                this.leafFill = Math.max(1, (int) Math.round(fillFactor * (order - 1)));
+                // At least 3 children so a short last group can always be topped up
+                this.internalFanout = Math.min(order, Math.max(3, (int) Math.round(fillFactor * order)));
+                this.leaf = tree.root;
+                leaves.add(leaf);
+            }
 
-            BPlusTreeNode right = new BPlusTreeNode(false);
-            right.keys.addAll(node.keys.subList(mid + 1, node.keys.size()));
-            right.children.addAll(node.children.subList(mid + 1, node.children.size()));
+            @Override
+            public void accept(int key) {
+                if (count > 0 && key <= lastKey) {
+                    throw new IllegalArgumentException(
+                            "bulkLoad needs strictly ascending keys: " + key + " after " + lastKey);
+                }
+                if (leaf.keyCount == leafFill) {
+                    BPlusTreeNode newLeaf = new BPlusTreeNode(true, tree.order);
+                    leaf.next = newLeaf;
+                    leaf = newLeaf;
+                    leaves.add(leaf);
+                }
+                leaf.keys[leaf.keyCount++] = key;
+                lastKey = key;
+                count++;
+            }
 
-            node.keys = new ArrayList<>(node.keys.subList(0, mid));
-            node.children = new ArrayList<>(node.children.subList(0, mid + 1));
+            BPlusTree finish() {
+                List<BPlusTreeNode> level = leaves;
+                while (level.size() > 1) {
+                    level = buildParents(level);
+                }
+                tree.root = level.get(0);
+                return tree;
+            }
 
-            right.keys.add(0, promoteKey);
+            private List<BPlusTreeNode> buildParents(List<BPlusTreeNode> level) {
+                int n = level.size();
+                List<BPlusTreeNode> parents = new ArrayList<>((n + internalFanout - 1) / internalFanout);
+
+                int start = 0;
+                while (start < n) {
+                    int size = Math.min(internalFanout, n - start);
+                    int rest = n - start - size;
+                    // Never leave a one-child node at the right edge: fold a
+                    // single trailing child into this group or split the tail evenly.
+                    if (rest == 1) {
+                        size = size + 1 <= tree.order ? size + 1 : (size + 1) / 2;
+                    }
+                    parents.add(buildParent(level, start, size));
+                    start += size;
+                }
+                return parents;
+            }
 
-            log("Internal split:");
-            log("  Promote key : " + promoteKey);
-            log("  Left node   : " + node.keys);
-            log("  Right node  : " + right.keys);
+            private BPlusTreeNode buildParent(List<BPlusTreeNode> level, int from, int size) {
+                BPlusTreeNode parent = new BPlusTreeNode(false, tree.order);
+                for (int i = 0; i < size; i++) {
+                    BPlusTreeNode child = level.get(from + i);
+                    parent.children[i] = child;
+                    if (i > 0) {
+                        parent.keys[i - 1] = lowestKey(child);
+                    }
+                }
+                parent.keyCount = size - 1;
+                return parent;
+            }
 
-            return right;
+            private static int lowestKey(BPlusTreeNode node) {
+                while (!node.isLeaf) {
+                    node = node.children[0];
+                }
+                return node.keys[0];
+            }
         }
 
-        private BPlusTreeNode splitInternalFill(BPlusTreeNode node) {
-            // 1. Get the last key to see if we are inserting at the end
-            int lastKey = node.keys.get(node.keys.size() - 1);
-            int secondToLast = node.keys.get(node.keys.size() - 2);
-
-            int mid;
-            int promoteKey;
-
-            // 2. ASYMMETRIC LOGIC: If newest promoted key is at the right edge
-            if (lastKey > secondToLast) {
-                log("✨ Internal Asymmetric Split (Right-Heavy)");
-                // We keep the original node full (all keys except the last one)
-                mid = node.keys.size() - 1;
-                promoteKey = node.keys.get(mid);
-            } else {
-                // 3. BALANCED LOGIC: For random data
-                log("⚖ Internal Balanced Split (Middle)");
-                mid = node.keys.size() / 2;
-                promoteKey = node.keys.get(mid);
+        // ---------- BATCH ----------
+        // Inserts every key of `batch` and returns how many were new. Works on
+        // a sorted copy (the caller's array is left alone): consecutive keys
+        // that land in the same leaf are merged into it in one pass, and each
+        // descent resumes from the deepest node of the previous path that still
+        // covers the key. Only a key that would overflow its leaf goes through
+        // insert(), which splits.
+        public int insertAll(int[] batch) {
+            int[] keys = batch.clone();
+            Arrays.sort(keys);
+            Descent descent = new Descent();
+            int[] merged = new int[order];
+            int inserted = 0;
+            int i = 0;
+            while (i < keys.length) {
+                BPlusTreeNode leaf = descent.seek(keys[i]);
+                int n = leaf.keyCount;
+                int room = order - 1 - n;
+                int a = 0;
+                int m = 0;
+                int added = 0;
+                while (i < keys.length && descent.leafCovers(keys[i])) {
+                    int key = keys[i];
+                    while (a < n && leaf.keys[a] < key) {
+                        merged[m++] = leaf.keys[a++];
+                    }
+                    boolean present = (a < n && leaf.keys[a] == key) || (m > 0 && merged[m - 1] == key);
+                    if (!present) {
+                        if (added == room) {
+                            break;
+                        }
+                        merged[m++] = key;
+                        added++;
+                        leaf.recordInsert(m - 1);
+                    }
+                    i++;
+                }
+                if (added > 0) {
+                    System.arraycopy(leaf.keys, a, merged, m, n - a);
+                    System.arraycopy(merged, 0, leaf.keys, 0, m + n - a);
+                    leaf.keyCount = m + n - a;
+                    inserted += added;
+                }
+                if (i < keys.length && descent.leafCovers(keys[i])) {
+                    // The leaf is full and keys[i] is new: split the regular way
+                    if (insert(keys[i])) {
+                        inserted++;
+                        descent.reset();
+                    }
+                    i++;
+                }
             }
+            return inserted;
+        }
 
-            BPlusTreeNode right = new BPlusTreeNode(false);
+        // contains() for a whole batch: result[i] answers keys[i]. Probes are
+        // visited in sorted order with the same path reuse as insertAll.
+        public boolean[] getAll(int[] keys) {
+            // Key in the high half, original position in the low half
+            long[] sorted = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                sorted[i] = (long) keys[i] << 32 | i;
+            }
+            Arrays.sort(sorted);
+
+            boolean[] found = new boolean[keys.length];
+            Descent descent = new Descent();
+            BPlusTreeNode leaf = null;
+            for (long entry : sorted) {
+                int key = (int) (entry >> 32);
+                if (leaf == null || !descent.leafCovers(key)) {
+                    leaf = descent.seek(key);
+                }
+                int idx = lowerBound(leaf.keys, leaf.keyCount, key);
+                found[(int) entry] = idx < leaf.keyCount && leaf.keys[idx] == key;
+            }
+            return found;
+        }
 
-            // 4. Move keys and children to the new right node
-            // Note: Children are always 1 more than keys
-            right.keys.addAll(node.keys.subList(mid + 1, node.keys.size()));
-            right.children.addAll(node.children.subList(mid + 1, node.children.size()));
+        // Root-to-leaf path kept across the ascending keys of one batch.
+        // nodes[d] is the node at depth d; hi[d] is the exclusive upper bound
+        // of its key range, unless it lies on the right edge (bounded[d] false).
+        // Keys only grow, so a key leaves a node's range through its upper
+        // bound only, and seek() backs up just as far as that.
+        private final class Descent {
+            private BPlusTreeNode[] nodes = new BPlusTreeNode[8];
+            private int[] hi = new int[8];
+            private boolean[] bounded = new boolean[8];
+            private int depth;
+
+            BPlusTreeNode seek(int key) {
+                while (depth > 0 && !covers(depth - 1, key)) {
+                    depth--;
+                }
+                if (depth == 0) {
+                    push(root, false, 0);
+                }
+                BPlusTreeNode node = nodes[depth - 1];
+                while (!node.isLeaf) {
+                    int idx = findChildIndex(node, key);
+                    if (idx < node.keyCount) {
+                        push(node.children[idx], true, node.keys[idx]);
+                    } else {
+                        push(node.children[idx], bounded[depth - 1], hi[depth - 1]);
+                    }
+                    node = nodes[depth - 1];
+                }
+                return node;
+            }
 
-            // 5. Clean up the original node
-            node.keys = new ArrayList<>(node.keys.subList(0, mid));
-            node.children = new ArrayList<>(node.children.subList(0, mid + 1));
+            boolean leafCovers(int key) {
+                return covers(depth - 1, key);
+            }
 
-            // 6. Return the new node with the promoted key at the start
-            // (matches your existing insertInternal logic)
-            right.keys.add(0, promoteKey);
+            // Called after a split: the recorded path may no longer exist
+            void reset() {
+                depth = 0;
+            }
 
-            return right;
-        }
+            private boolean covers(int d, int key) {
+                return !bounded[d] || key < hi[d];
+            }
 
-        // ---------- HELPERS ----------
-        private int findChildIndex(BPlusTreeNode node, int key) {
-            int idx = 0;
-            while (idx < node.keys.size() && key >= node.keys.get(idx)) {
-                idx++;
+            private void push(BPlusTreeNode node, boolean isBounded, int bound) {
+                if (depth == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, depth * 2);
+                    hi = Arrays.copyOf(hi, depth * 2);
+                    bounded = Arrays.copyOf(bounded, depth * 2);
+                }
+                nodes[depth] = node;
+                hi[depth] = bound;
+                bounded[depth] = isBounded;
+                depth++;
             }
-            return idx;
         }
 
-        // ---------- LOGGING ----------
-        private void logTree() {
-            log("\nTREE STRUCTURE:");
-            Queue<BPlusTreeNode> q = new LinkedList<>();
-            q.add(root);
+        // ---------- DELETE ----------
+        // Returns false if the key was not present.
+        public boolean remove(int key) {
+            if (!removeInternal(root, key)) {
+                return false;
+            }
 
-            while (!q.isEmpty()) {
-                int size = q.size();
-                for (int i = 0; i < size; i++) {
-                    BPlusTreeNode n = q.poll();
-                    System.out.print(n.keys + " ");
-                    if (!n.isLeaf) {
-                        q.addAll(n.children);
-                    }
+            // A root emptied by a merge below it hands over to its only child.
+            while (!root.isLeaf && root.keyCount == 0) {
+                root = root.children[0];
+                listener.rootShrank(height());
+            }
+            return true;
+        }
+
+        private boolean removeInternal(BPlusTreeNode node, int key) {
+            if (node.isLeaf) {
+                int idx = lowerBound(node.keys, node.keyCount, key);
+                if (idx == node.keyCount || node.keys[idx] != key) {
+                    return false;
                 }
-                System.out.println();
+                System.arraycopy(node.keys, idx + 1, node.keys, idx, node.keyCount - idx - 1);
+                node.keyCount--;
+                return true;
             }
 
-            log("Leaf chain:");
-            BPlusTreeNode leaf = root;
-            while (!leaf.isLeaf) {
-                leaf = leaf.children.get(0);
+            // Separators are only routing values, so one equal to the removed
+            // key can stay where it is.
+            int idx = findChildIndex(node, key);
+            BPlusTreeNode child = node.children[idx];
+            if (!removeInternal(child, key)) {
+                return false;
             }
-            while (leaf != null) {
-                System.out.print(leaf.keys + " → ");
-                leaf = leaf.next;
+
+            if (child.keyCount < minKeys) {
+                rebalance(node, idx);
             }
-            System.out.println("NULL");
+            return true;
         }
 
-        private void logTreeFixed() {
-            log("\nTREE STRUCTURE (FIXED):");
-            Queue<BPlusTreeNode> q = new LinkedList<>();
-            q.add(root);
-            int level = 0;
+        // Refills parent.children[idx] from a sibling that can spare a key,
+        // otherwise merges it with one.
+        private void rebalance(BPlusTreeNode parent, int idx) {
+            BPlusTreeNode child = parent.children[idx];
+            BPlusTreeNode left = idx > 0 ? parent.children[idx - 1] : null;
+            BPlusTreeNode right = idx < parent.keyCount ? parent.children[idx + 1] : null;
+
+            if (left != null && left.keyCount > minKeys) {
+                borrowFromLeft(parent, idx, left, child);
+            } else if (right != null && right.keyCount > minKeys) {
+                borrowFromRight(parent, idx, child, right);
+            } else if (left != null) {
+                merge(parent, idx - 1, left, child);
+            } else {
+                merge(parent, idx, child, right);
+            }
+        }
 
-            while (!q.isEmpty()) {
-                int size = q.size();
-                System.out.print("Level " + level + ": ");
-                for (int i = 0; i < size; i++) {
-                    BPlusTreeNode n = q.poll();
-                    System.out.print(n.keys + (n.isLeaf ? "(L) " : "(I) "));
-                    if (!n.isLeaf) {
-                        q.addAll(n.children);
-                    }
-                }
-                System.out.println();
-                level++;
+        private void borrowFromLeft(BPlusTreeNode parent, int idx, BPlusTreeNode left, BPlusTreeNode child) {
+            int n = child.keyCount;
+            System.arraycopy(child.keys, 0, child.keys, 1, n);
+
+            if (child.isLeaf) {
+                child.keys[0] = left.keys[left.keyCount - 1];
+                parent.keys[idx - 1] = child.keys[0];
+            } else {
+                // Rotate through the parent: separator down, left's last key up
+                System.arraycopy(child.children, 0, child.children, 1, n + 1);
+                child.keys[0] = parent.keys[idx - 1];
+                child.children[0] = left.children[left.keyCount];
+                left.children[left.keyCount] = null;
+                parent.keys[idx - 1] = left.keys[left.keyCount - 1];
             }
 
-            log("Leaf chain:");
-            BPlusTreeNode leaf = root;
-            while (!leaf.isLeaf) {
-                leaf = leaf.children.get(0);
+            child.keyCount = n + 1;
+            left.keyCount--;
+            listener.borrowed(child.isLeaf, true);
+        }
+
+        private void borrowFromRight(BPlusTreeNode parent, int idx, BPlusTreeNode child, BPlusTreeNode right) {
+            int n = child.keyCount;
+            int rn = right.keyCount;
+
+            if (child.isLeaf) {
+                child.keys[n] = right.keys[0];
+                System.arraycopy(right.keys, 1, right.keys, 0, rn - 1);
+                parent.keys[idx] = right.keys[0];
+            } else {
+                // Rotate through the parent: separator down, right's first key up
+                child.keys[n] = parent.keys[idx];
+                child.children[n + 1] = right.children[0];
+                parent.keys[idx] = right.keys[0];
+                System.arraycopy(right.keys, 1, right.keys, 0, rn - 1);
+                System.arraycopy(right.children, 1, right.children, 0, rn);
+                right.children[rn] = null;
             }
-            while (leaf != null) {
-                System.out.print(leaf.keys + " → ");
-                leaf = leaf.next;
+
+            child.keyCount = n + 1;
+            right.keyCount = rn - 1;
+            listener.borrowed(child.isLeaf, false);
+        }
+
+        // Folds `right` into `left` and drops parent.keys[sepIdx] together
+        // with the pointer to `right`.
+        private void merge(BPlusTreeNode parent, int sepIdx, BPlusTreeNode left, BPlusTreeNode right) {
+            int ln = left.keyCount;
+            int rn = right.keyCount;
+
+            if (left.isLeaf) {
+                System.arraycopy(right.keys, 0, left.keys, ln, rn);
+                left.keyCount = ln + rn;
+                left.next = right.next;
+            } else {
+                // The separator comes down between the two halves
+                left.keys[ln] = parent.keys[sepIdx];
+                System.arraycopy(right.keys, 0, left.keys, ln + 1, rn);
+                System.arraycopy(right.children, 0, left.children, ln + 1, rn + 1);
+                left.keyCount = ln + 1 + rn;
             }
-            System.out.println("NULL");
+
+            int pn = parent.keyCount;
+            System.arraycopy(parent.keys, sepIdx + 1, parent.keys, sepIdx, pn - sepIdx - 1);
+            System.arraycopy(parent.children, sepIdx + 2, parent.children, sepIdx + 1, pn - sepIdx - 1);
+            parent.children[pn] = null;
+            parent.keyCount = pn - 1;
+
+            listener.merged(left.isLeaf, left.keyCount);
         }
 
-        private void logFragmentation() {
-            log("\nFRAGMENTATION REPORT:");
-            logFragmentation(root);
+        // Number of levels from the root down to the leaves (1 for a lone leaf).
+        int height() {
+            int h = 1;
+            for (BPlusTreeNode node = root; !node.isLeaf; node = node.children[0]) {
+                h++;
+            }
+            return h;
         }
 
-        private void logFragmentation(BPlusTreeNode node) {
-            double frag = (double) (order - node.keys.size()) / order;
-            log((node.isLeaf ? "Leaf" : "Internal")
-                    + " " + node.keys
-                    + " | utilization=" + node.keys.size() + "/" + order
-                    + " | fragmentation=" + String.format("%.2f", frag));
+        // Share of resting leaf capacity (order - 1 keys per leaf) in use.
+        double leafUtilization() {
+            BPlusTreeNode leaf = firstLeaf();
+            long keys = 0;
+            long leaves = 0;
+            for (; leaf != null; leaf = leaf.next) {
+                keys += leaf.keyCount;
+                leaves++;
+            }
+            return (double) keys / (leaves * (order - 1));
+        }
 
-            if (!node.isLeaf) {
-                for (BPlusTreeNode c : node.children) {
-                    logFragmentation(c);
+        // ---------- QUERY ----------
+        public boolean contains(int key) {
+            BPlusTreeNode leaf = findLeaf(key);
+            int idx = lowerBound(leaf.keys, leaf.keyCount, key);
+            return idx < leaf.keyCount && leaf.keys[idx] == key;
+        }
+
+        public OptionalInt get(int key) {
+            return contains(key) ? OptionalInt.of(key) : OptionalInt.empty();
+        }
+
+        // Keys in [from, to] (both inclusive) in ascending order.
+        public Cursor rangeScan(int from, int to) {
+            BPlusTreeNode leaf = findLeaf(from);
+            return new Cursor(leaf, lowerBound(leaf.keys, leaf.keyCount, from), to);
+        }
+
+        // Number of keys in [from, to]. Interior leaves of the range are
+        // counted by keyCount alone; only the two boundary leaves are searched.
+        public long count(int from, int to) {
+            if (from > to) {
+                return 0;
+            }
+            BPlusTreeNode leaf = findLeaf(from);
+            int start = lowerBound(leaf.keys, leaf.keyCount, from);
+            long total = 0;
+            while (leaf != null) {
+                int n = leaf.keyCount;
+                if (n > 0 && leaf.keys[n - 1] > to) {
+                    total += upperBound(leaf.keys, n, to) - start;
+                    break;
                 }
+                total += n - start;
+                leaf = leaf.next;
+                start = 0;
             }
+            return total;
         }
 
-        private void logFragmentationNice() {
-            logReport("\n╔════════════════════════════════════════════════════════════╗");
-            logReport("║              FRAGMENTATION ANALYSIS REPORT                 ║");
-            logReport("╠════════════════════════════════════════════════════════════╣");
-            
-            List<String> internalNodes = new ArrayList<>();
-            List<String> leafNodes = new ArrayList<>();
-            int[] stats = new int[4];
-            collectFragmentationData(root, internalNodes, leafNodes, stats);
-            
-            int totalKeys = stats[0];
-            int totalCapacity = stats[1];
-            int internalKeys = stats[2];
-            int leafKeys = stats[3];
-            
-            if (!internalNodes.isEmpty()) {
-                logReport("║ INTERNAL NODES:                                            ║");
-                logReport("╟────────────────────────────────────────────────────────────╢");
-                for (String line : internalNodes) {
-                    logReport(String.format("║ %-58s ║", line));
-                }
+        // ---------- HELPERS ----------
+        private int findChildIndex(BPlusTreeNode node, int key) {
+            return upperBound(node.keys, node.keyCount, key);
+        }
+
+        // Descends to the leaf whose key range covers `key`. Keys are unique,
+        // so this is also the leaf where a range starting at `key` begins.
+        BPlusTreeNode findLeaf(int key) {
+            BPlusTreeNode node = root;
+            while (!node.isLeaf) {
+                node = node.children[findChildIndex(node, key)];
             }
-            
-            if (!leafNodes.isEmpty()) {
-                logReport("╟────────────────────────────────────────────────────────────╢");
-                logReport("║ LEAF NODES:                                                ║");
-                logReport("╟────────────────────────────────────────────────────────────╢");
-                for (String line : leafNodes) {
-                    logReport(String.format("║ %-58s ║", line));
-                }
+            return node;
+        }
+
+        // Head of the leaf chain.
+        private BPlusTreeNode firstLeaf() {
+            BPlusTreeNode node = root;
+            while (!node.isLeaf) {
+                node = node.children[0];
             }
-            
-            double totalUtil = (totalKeys * 100.0) / totalCapacity;
-            double totalFrag = 100.0 - totalUtil;
-            String totalBar = createUtilizationBar(totalUtil);
-            
-            logReport("╠════════════════════════════════════════════════════════════╣");
-            logReport("║ OVERALL STATISTICS:                                        ║");
-            logReport("╟────────────────────────────────────────────────────────────╢");
-            
-            String totalKeysLine = String.format("║ Total Keys:        %d (%d internal, %d leaf)", 
-                totalKeys, internalKeys, leafKeys);
-            int totalKeysPad = 61 - totalKeysLine.length();
-            logReport(totalKeysLine + repeat(' ',Math.max(0, totalKeysPad)) + "║");
-            
-            logReport(String.format("║ Data Records:      %-39d ║", leafKeys));
-            logReport(String.format("║ Total Capacity:    %-39d ║", totalCapacity));
-            
-            String utilLine = String.format("║ Utilization:       %s %.0f%%", totalBar, totalUtil);
-            int utilPad = 61 - utilLine.length();
-            logReport(utilLine + repeat(' ',Math.max(0, utilPad)) + "║");
-            
-            String fragLine = String.format("║ Fragmentation:     %.0f%%", totalFrag);
-            int fragPad = 61 - fragLine.length();
-            logReport(fragLine + repeat(' ',Math.max(0, fragPad)) + "║");
-            
-            logReport("╚════════════════════════════════════════════════════════════╝");
-        }
-
-        private static String repeat(char ch, int count) {
-            if (count <= 0) return "";
-            char[] arr = new char[count];
-            Arrays.fill(arr, ch);
-            return new String(arr);
-        }
-
-        private void collectFragmentationData(BPlusTreeNode node, List<String> internalNodes, List<String> leafNodes, int[] stats) {
-            int utilized = node.keys.size();
-            double utilPct = (utilized * 100.0) / order;
-            
-            stats[0] += utilized;
-            stats[1] += order;
-            
-            if (node.isLeaf) {
-                stats[3] += utilized;
-            } else {
-                stats[2] += utilized;
-            }
-            
-            String bar = createUtilizationBar(utilPct);
-            String line = String.format("%-12s %s [%d/%d] %.0f%% used",
-                    node.keys.toString(),
-                    bar,
-                    utilized,
-                    order,
-                    utilPct);
-            
-            if (node.isLeaf) {
-                leafNodes.add(line);
-            } else {
-                internalNodes.add(line);
-                for (BPlusTreeNode c : node.children) {
-                    collectFragmentationData(c, internalNodes, leafNodes, stats);
-                }
+            return node;
+        }
+
+        // First index in keys[0..n) whose value is >= key.
+        static int lowerBound(int[] keys, int n, int key) {
+            int lo = 0, hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < key) lo = mid + 1;
+                else hi = mid;
             }
+            return lo;
         }
 
-        private String createUtilizationBar(double percent) {
-            int barLength = 20;
-            int filled = (int) ((percent / 100.0) * barLength);
-            StringBuilder bar = new StringBuilder("[");
-            for (int i = 0; i < barLength; i++) {
-                bar.append(i < filled ? "█" : "░");
+        // First index in keys[0..n) whose value is > key.
+        static int upperBound(int[] keys, int n, int key) {
+            int lo = 0, hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] <= key) lo = mid + 1;
+                else hi = mid;
             }
-            bar.append("]");
-            return bar.toString();
+            return lo;
         }
 
-        private static void log(String msg) {
-            System.out.println("[LOG] " + msg);
+        // ---------- INSPECTION ----------
+        // Walks the whole tree once; nothing here runs on the write path.
+        public FragmentationSnapshot fragmentation() {
+            FragmentationSnapshot snapshot = new FragmentationSnapshot(order, height());
+            collectFragmentation(root, 0, snapshot);
+            return snapshot;
         }
 
-        private static void logReport(String msg) {
-            System.out.println(msg);
+        private void collectFragmentation(BPlusTreeNode node, int level, FragmentationSnapshot snapshot) {
+            snapshot.add(level, node.keyCount);
+            if (!node.isLeaf) {
+                for (int c = 0; c <= node.keyCount; c++) {
+                    collectFragmentation(node.children[c], level + 1, snapshot);
+                }
+            }
+        }
+
+        // Prints every level and the leaf chain. Meant for small demo trees.
+        void printTree() {
+            System.out.println("TREE STRUCTURE:");
+            Deque<BPlusTreeNode> q = new ArrayDeque<>();
+            q.add(root);
+            int level = 0;
+
+            while (!q.isEmpty()) {
+                int size = q.size();
+                System.out.print("Level " + level + ": ");
+                for (int i = 0; i < size; i++) {
+                    BPlusTreeNode n = q.poll();
+                    System.out.print(n.keysToString() + (n.isLeaf ? "(L) " : "(I) "));
+                    if (!n.isLeaf) {
+                        for (int c = 0; c <= n.keyCount; c++) q.add(n.children[c]);
+                    }
+                }
+                System.out.println();
+                level++;
+            }
+
+            System.out.print("Leaf chain: ");
+            for (BPlusTreeNode leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+                System.out.print(leaf.keysToString() + " → ");
+            }
+            System.out.println("NULL");
         }
     }
 
     // ================= MAIN =================
     public static void main(String[] args) {
-        BPlusTree tree = new BPlusTree(10);
+        BPlusTree tree = new BPlusTree(10, true);
 
         //int[] keys = {10, 20, 5, 6, 12, 30, 7, 17, 3, 25};
         //int[] keys = {10, 20, 5, 6, 12, 30};
@@ -464,5 +836,28 @@ public class BPlusTreeDemo {
         for (int k : randomKeys) {
             tree.insert(k);
         }
+        System.out.println();
+        tree.printTree();
+        System.out.println(tree.fragmentation().report());
+
+        System.out.println("\ncontains(42)  = " + tree.contains(42));
+        System.out.println("contains(201) = " + tree.contains(201));
+        System.out.println("get(77)       = " + tree.get(77));
+        System.out.println("count(50, 99) = " + tree.count(50, 99));
+
+        System.out.print("rangeScan(95, 110): ");
+        Cursor cursor = tree.rangeScan(95, 110);
+        while (cursor.hasNext()) {
+            System.out.print(cursor.nextInt() + " ");
+        }
+        System.out.println();
+
+        // expire a run of keys to exercise borrow/merge
+        for (int k = 95; k <= 110; k++) {
+            tree.remove(k);
+        }
+        System.out.println();
+        tree.printTree();
+        System.out.println(tree.fragmentation().report());
     }
 }
@@ -0,0 +1,90 @@
+package org.example;
+
+/**
+ * Structural events of a BPlusTreeDemo.BPlusTree.
+ *
+ * Only shape changes are reported (splits, promotions, root changes,
+ * borrows, merges), never individual inserts or lookups. So even an active
+ * listener is called about once per order/2 writes, and NONE costs one
+ * empty call per split. For whole-tree numbers, take a
+ * BPlusTree.fragmentation() snapshot when you need it.
+ *
+ * All methods default to doing nothing, so implementations override only the
+ * events they care about. See TreeMetrics for a counting implementation.
+ */
+public interface BPlusTreeListener {
+
+    BPlusTreeListener NONE = new BPlusTreeListener() {
+    };
+
+    // A full leaf was split. `uneven` is true when the SplitPolicy moved the
+    // split point off the middle because it saw a sequential insert run.
+    default void leafSplit(int leftKeys, int rightKeys, boolean uneven) {
+    }
+
+    default void internalSplit(int leftKeys, int rightKeys, boolean uneven) {
+    }
+
+    // A split pushed `key` up into its parent (or into a new root).
+    default void promoted(int key) {
+    }
+
+    // The root split and the tree is now `height` levels tall.
+    default void rootGrew(int height) {
+    }
+
+    // An empty root was replaced by its only child.
+    default void rootShrank(int height) {
+    }
+
+    default void borrowed(boolean leaf, boolean fromLeft) {
+    }
+
+    // Two siblings were merged into one node of `keys` keys.
+    default void merged(boolean leaf, int keys) {
+    }
+
+    // Prints every event as a [LOG] line, like the demo used to.
+    static BPlusTreeListener logging() {
+        return new BPlusTreeListener() {
+            @Override
+            public void leafSplit(int leftKeys, int rightKeys, boolean uneven) {
+                log((uneven ? "✨ Asymmetric" : "⚖ Balanced") + " leaf split → " + leftKeys + " | " + rightKeys + " keys");
+            }
+
+            @Override
+            public void internalSplit(int leftKeys, int rightKeys, boolean uneven) {
+                log((uneven ? "✨ Asymmetric" : "⚖ Balanced") + " internal split → " + leftKeys + " | " + rightKeys + " keys");
+            }
+
+            @Override
+            public void promoted(int key) {
+                log("⬆ Promoting key " + key + " to internal node");
+            }
+
+            @Override
+            public void rootGrew(int height) {
+                log("🌱 Root split → height " + height);
+            }
+
+            @Override
+            public void rootShrank(int height) {
+                log("🍂 Root emptied → height " + height);
+            }
+
+            @Override
+            public void borrowed(boolean leaf, boolean fromLeft) {
+                log((fromLeft ? "↪ Borrowed from left" : "↩ Borrowed from right") + (leaf ? " leaf" : " internal node"));
+            }
+
+            @Override
+            public void merged(boolean leaf, int keys) {
+                log("🔗 Merged " + (leaf ? "leaves" : "internal nodes") + " → " + keys + " keys");
+            }
+
+            private void log(String msg) {
+                System.out.println("[LOG] " + msg);
+            }
+        };
+    }
+}
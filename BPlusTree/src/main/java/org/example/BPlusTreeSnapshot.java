@@ -0,0 +1,314 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Immutable, memory-mapped copy of a BPlusTreeDemo.BPlusTree.
+ *
+ * write() repacks the tree's keys into completely full pages. open() maps the
+ * file and answers lookups and range scans directly against the mapped bytes.
+ * Nothing is deserialized, so opening a snapshot costs one mmap regardless of size.
+ *
+ * File layout (page size P, all ints little-endian):
+ *   page 0   header: magic, P, key count, height, fanout, leaf capacity,
+ *            leaf count, then the first page of each level from the root down
+ *   levels   internal levels root first, then the leaves. Every page starts
+ *            with its entry count.
+ *
+ * Leaves hold (P - 4) / 4 keys and sit next to each other, so the leaf chain is
+ * just the next page. Internal pages hold up to (P - 4) / 4 separators. The
+ * children of node j on one level are nodes j * fanout .. j * fanout + count
+ * on the level below, so no child pointers are stored.
+ *
+ * A MappedByteBuffer addresses at most 2 GB, which caps a snapshot at ~500M keys.
+ */
+public class BPlusTreeSnapshot implements Closeable {
+
+    private static final int MAGIC = 0x42505331; // "BPS1"
+    private static final int LEVELS = 32;
+    private static final int MAX_HEIGHT = 16;
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    // Page 0 must hold the level table, which is larger than a page with a
+    // count and one key
+    private static final int MIN_PAGE_SIZE = LEVELS + 4 * MAX_HEIGHT;
+
+    private final FileChannel channel;
+    private final ByteBuffer buf;
+    private final int pageSize;
+    private final long keyCount;
+    private final int height;
+    private final int fanout;
+    private final int leafCount;
+    private final int[] levelStart;
+
+    private BPlusTreeSnapshot(FileChannel channel, ByteBuffer buf) throws IOException {
+        this.channel = channel;
+        this.buf = buf;
+        if (buf.getInt(0) != MAGIC) {
+            throw new IOException("not a B+ tree snapshot");
+        }
+        this.pageSize = buf.getInt(4);
+        this.keyCount = buf.getLong(8);
+        this.height = buf.getInt(16);
+        this.fanout = buf.getInt(20);
+        this.leafCount = buf.getInt(28);
+        this.levelStart = new int[height];
+        for (int level = 0; level < height; level++) {
+            levelStart[level] = buf.getInt(LEVELS + 4 * level);
+        }
+    }
+
+    // ---------- WRITE ----------
+    public static void write(BPlusTreeDemo.BPlusTree tree, Path file) throws IOException {
+        write(tree, file, DEFAULT_PAGE_SIZE);
+    }
+
+    public static void write(BPlusTreeDemo.BPlusTree tree, Path file, int pageSize) throws IOException {
+        checkPageSize(pageSize);
+        long total = tree.count(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        int[] keys = new int[Math.toIntExact(total)];
+        int n = 0;
+        for (BPlusTreeDemo.Cursor cursor = tree.rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE); cursor.hasNext(); ) {
+            keys[n++] = cursor.nextInt();
+        }
+        write(keys, file, pageSize);
+    }
+
+    // Pages are zeroed a long at a time, so the size must be a multiple of 8.
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < MIN_PAGE_SIZE || pageSize % 8 != 0) {
+            throw new IllegalArgumentException("page size must be a multiple of 8 and at least "
+                    + MIN_PAGE_SIZE + ": " + pageSize);
+        }
+    }
+
+    // Writes strictly ascending keys as a snapshot.
+    static void write(int[] keys, Path file, int pageSize) throws IOException {
+        checkPageSize(pageSize);
+        int perPage = (pageSize - 4) / 4;
+        int fanout = perPage + 1;
+
+        // Node counts per level, leaves first
+        int[] levelNodes = new int[MAX_HEIGHT];
+        int height = 0;
+        levelNodes[height++] = Math.max(1, (keys.length + perPage - 1) / perPage);
+        while (levelNodes[height - 1] > 1) {
+            if (height == MAX_HEIGHT) {
+                throw new IllegalArgumentException("page size too small for " + keys.length + " keys");
+            }
+            levelNodes[height] = (levelNodes[height - 1] + fanout - 1) / fanout;
+            height++;
+        }
+
+        // Level starts in root-first order; page 0 is the header
+        int[] levelStart = new int[height];
+        int page = 1;
+        for (int level = 0; level < height; level++) {
+            levelStart[level] = page;
+            page += levelNodes[height - 1 - level];
+        }
+        if ((long) page * pageSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("snapshot would exceed 2 GB");
+        }
+
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer pageBuf = ByteBuffer.allocate(pageSize).order(ByteOrder.LITTLE_ENDIAN);
+
+            pageBuf.putInt(MAGIC).putInt(pageSize).putLong(keys.length)
+                    .putInt(height).putInt(fanout).putInt(perPage).putInt(levelNodes[0]);
+            for (int level = 0; level < height; level++) {
+                pageBuf.putInt(LEVELS + 4 * level, levelStart[level]);
+            }
+            writePage(out, pageBuf);
+
+            // Internal levels, root first. Child k on the level below starts at
+            // leaf k * childSpan, and a node's separators are the lowest keys
+            // of its children 1..count.
+            long childSpan = 1;
+            for (int level = 1; level < height - 1; level++) {
+                childSpan *= fanout;
+            }
+            for (int depth = 0; depth < height - 1; depth++) {
+                int nodes = levelNodes[height - 1 - depth];
+                int childNodes = levelNodes[height - 2 - depth];
+                for (int j = 0; j < nodes; j++) {
+                    int children = (int) Math.min(fanout, childNodes - (long) j * fanout);
+                    pageBuf.putInt(children - 1);
+                    for (int c = 1; c < children; c++) {
+                        long leaf = ((long) j * fanout + c) * childSpan;
+                        pageBuf.putInt(keys[(int) (leaf * perPage)]);
+                    }
+                    writePage(out, pageBuf);
+                }
+                childSpan /= fanout;
+            }
+
+            for (int leaf = 0; leaf < levelNodes[0]; leaf++) {
+                int from = leaf * perPage;
+                int count = Math.min(perPage, keys.length - from);
+                pageBuf.putInt(count);
+                for (int i = 0; i < count; i++) {
+                    pageBuf.putInt(keys[from + i]);
+                }
+                writePage(out, pageBuf);
+            }
+            out.force(false);
+        }
+    }
+
+    private static void writePage(FileChannel out, ByteBuffer pageBuf) throws IOException {
+        pageBuf.clear();
+        while (pageBuf.hasRemaining()) {
+            out.write(pageBuf);
+        }
+        pageBuf.clear();
+        // Zero the page so unused slots are deterministic
+        while (pageBuf.hasRemaining()) {
+            pageBuf.putLong(0);
+        }
+        pageBuf.clear();
+    }
+
+    // ---------- READ ----------
+    public static BPlusTreeSnapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BPlusTreeSnapshot(channel, mapped.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean contains(int key) {
+        int leaf = findLeaf(key, false);
+        int base = leafBase(leaf);
+        int n = buf.getInt(base);
+        int idx = lowerBound(base, n, key);
+        return idx < n && buf.getInt(base + 4 + 4 * idx) == key;
+    }
+
+    // Keys in [from, to] (both inclusive) in ascending order.
+    public Cursor rangeScan(int from, int to) {
+        int leaf = findLeaf(from, true);
+        int base = leafBase(leaf);
+        return new Cursor(leaf, lowerBound(base, buf.getInt(base), from), to);
+    }
+
+    public long count(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        int leaf = findLeaf(from, true);
+        int start = lowerBound(leafBase(leaf), buf.getInt(leafBase(leaf)), from);
+        long total = 0;
+        for (; leaf < leafCount; leaf++, start = 0) {
+            int base = leafBase(leaf);
+            int n = buf.getInt(base);
+            if (n > 0 && buf.getInt(base + 4 * n) > to) {
+                return total + upperBound(base, n, to) - start;
+            }
+            total += n - start;
+        }
+        return total;
+    }
+
+    public long size() {
+        return keyCount;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released when the buffer is garbage collected
+        channel.close();
+    }
+
+    // Forward cursor over the mapped leaves; adjacent pages form the leaf chain.
+    public final class Cursor implements PrimitiveIterator.OfInt {
+        private int leaf;
+        private int pos;
+        private final int to;
+
+        Cursor(int leaf, int pos, int to) {
+            this.leaf = leaf;
+            this.pos = pos;
+            this.to = to;
+            skipExhaustedLeaves();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf < leafCount && buf.getInt(leafBase(leaf) + 4 + 4 * pos) <= to;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int key = buf.getInt(leafBase(leaf) + 4 + 4 * pos++);
+            skipExhaustedLeaves();
+            return key;
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf < leafCount && pos >= buf.getInt(leafBase(leaf))) {
+                leaf++;
+                pos = 0;
+            }
+        }
+    }
+
+    // ---------- HELPERS ----------
+    // Index of the leaf for `key`. Range queries descend on the lower bound.
+    private int findLeaf(int key, boolean lower) {
+        int node = 0;
+        for (int level = 0; level < height - 1; level++) {
+            int base = (levelStart[level] + node) * pageSize;
+            int n = buf.getInt(base);
+            int child = lower ? lowerBound(base, n, key) : upperBound(base, n, key);
+            node = node * fanout + child;
+        }
+        return node;
+    }
+
+    private int leafBase(int leaf) {
+        return (levelStart[height - 1] + leaf) * pageSize;
+    }
+
+    // Searches the n ints after the count at byte offset `base`.
+    private int lowerBound(int base, int n, int key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getInt(base + 4 + 4 * mid) < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int upperBound(int base, int n, int key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getInt(base + 4 + 4 * mid) <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
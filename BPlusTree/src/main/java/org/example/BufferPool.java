@@ -0,0 +1,195 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixed number of page-sized frames cached in front of a FileChannel.
+ *
+ * - pin() returns the frame holding a page, reading it from disk on a miss
+ * - a pinned frame is never evicted; callers unpin() it when done, saying
+ *   whether they modified it
+ * - eviction uses the clock algorithm: the hand skips pinned frames, gives
+ *   recently referenced frames a second chance, and writes a dirty victim
+ *   back before reusing it
+ */
+public class BufferPool implements Closeable {
+
+    static final class Frame {
+        final byte[] data;
+        final ByteBuffer buf;
+        int pageId = -1;
+        int pinCount;
+        boolean dirty;
+        boolean referenced;
+
+        Frame(int pageSize) {
+            this.data = new byte[pageSize];
+            this.buf = ByteBuffer.wrap(data);
+        }
+    }
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final Frame[] frames;
+    private final Map<Integer, Frame> pageTable;
+    private int clockHand;
+    private int pageCount;
+
+    // Statistics
+    private long hits;
+    private long reads;
+    private long writes;
+
+    public BufferPool(FileChannel channel, int pageSize, int capacity) throws IOException {
+        if (capacity < 8) {
+            throw new IllegalArgumentException("buffer pool needs at least 8 frames: " + capacity);
+        }
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.frames = new Frame[capacity];
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = new Frame(pageSize);
+        }
+        this.pageTable = new HashMap<>(capacity * 2);
+        this.pageCount = (int) (channel.size() / pageSize);
+    }
+
+    // ---------- PAGES ----------
+    public Frame pin(int pageId) throws IOException {
+        Frame frame = pageTable.get(pageId);
+        if (frame != null) {
+            hits++;
+        } else {
+            if (pageId < 0 || pageId >= pageCount) {
+                throw new IllegalArgumentException("page " + pageId + " does not exist (" + pageCount + " pages)");
+            }
+            frame = evict();
+            frame.buf.clear();
+            long position = (long) pageId * pageSize;
+            while (frame.buf.hasRemaining()) {
+                if (channel.read(frame.buf, position + frame.buf.position()) < 0) {
+                    throw new IOException("unexpected end of file reading page " + pageId);
+                }
+            }
+            reads++;
+            install(frame, pageId);
+        }
+        frame.pinCount++;
+        frame.referenced = true;
+        return frame;
+    }
+
+    // Appends a zeroed page to the file and returns it pinned and dirty.
+    public Frame allocate() throws IOException {
+        Frame frame = evict();
+        Arrays.fill(frame.data, (byte) 0);
+        install(frame, pageCount++);
+        frame.pinCount = 1;
+        frame.referenced = true;
+        frame.dirty = true;
+        return frame;
+    }
+
+    public void unpin(Frame frame, boolean dirty) {
+        if (frame.pinCount <= 0) {
+            throw new IllegalStateException("page " + frame.pageId + " is not pinned");
+        }
+        frame.pinCount--;
+        frame.dirty |= dirty;
+    }
+
+    public void flush() throws IOException {
+        for (Frame frame : frames) {
+            if (frame.pageId >= 0 && frame.dirty) {
+                writeBack(frame);
+            }
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    // ---------- EVICTION ----------
+    private Frame evict() throws IOException {
+        // Two full sweeps: the first may only clear reference bits
+        for (int scanned = 0; scanned < frames.length * 2; scanned++) {
+            Frame frame = frames[clockHand];
+            clockHand = (clockHand + 1) % frames.length;
+
+            if (frame.pinCount > 0) {
+                continue;
+            }
+            if (frame.referenced) {
+                frame.referenced = false;
+                continue;
+            }
+            if (frame.pageId >= 0) {
+                if (frame.dirty) {
+                    writeBack(frame);
+                }
+                pageTable.remove(frame.pageId);
+                frame.pageId = -1;
+            }
+            return frame;
+        }
+        throw new IllegalStateException("buffer pool exhausted: all " + frames.length + " frames are pinned");
+    }
+
+    private void install(Frame frame, int pageId) {
+        frame.pageId = pageId;
+        frame.dirty = false;
+        pageTable.put(pageId, frame);
+    }
+
+    private void writeBack(Frame frame) throws IOException {
+        ByteBuffer out = ByteBuffer.wrap(frame.data);
+        long position = (long) frame.pageId * pageSize;
+        while (out.hasRemaining()) {
+            channel.write(out, position + out.position());
+        }
+        frame.dirty = false;
+        writes++;
+    }
+
+    // ---------- STATS ----------
+    public int pageSize() {
+        return pageSize;
+    }
+
+    public int pageCount() {
+        return pageCount;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long reads() {
+        return reads;
+    }
+
+    public long writes() {
+        return writes;
+    }
+
+    public double hitRatio() {
+        long total = hits + reads;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void resetStats() {
+        hits = 0;
+        reads = 0;
+        writes = 0;
+    }
+}
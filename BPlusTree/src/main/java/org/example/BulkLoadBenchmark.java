@@ -0,0 +1,56 @@
+package org.example;
+
+import java.util.stream.IntStream;
+
+/**
+ * Build time and leaf utilization of BPlusTree.bulkLoad versus inserting the
+ * same sorted keys one at a time.
+ *
+ * Usage: java org.example.BulkLoadBenchmark [keyCount] [order] [fillFactor]
+ * 100M keys needs roughly -Xmx3g.
+ */
+public class BulkLoadBenchmark {
+
+    public static void main(String[] args) {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+        double fillFactor = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        System.out.println("Keys: " + keyCount + " | order: " + order + " | fill factor: " + fillFactor);
+        System.out.println(String.format("%-22s %10s %8s %14s", "method", "seconds", "height", "leaf util"));
+
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+
+            long start = System.nanoTime();
+            BPlusTreeDemo.BPlusTree streamed =
+                    BPlusTreeDemo.BPlusTree.bulkLoad(order, IntStream.range(0, keyCount), fillFactor);
+            report(print, "bulkLoad(IntStream)", start, streamed, keyCount);
+            streamed = null;
+
+            int[] keys = IntStream.range(0, keyCount).toArray();
+            start = System.nanoTime();
+            BPlusTreeDemo.BPlusTree packed = BPlusTreeDemo.BPlusTree.bulkLoad(order, keys, fillFactor);
+            report(print, "bulkLoad(int[])", start, packed, keyCount);
+            packed = null;
+
+            start = System.nanoTime();
+            BPlusTreeDemo.BPlusTree inserted = new BPlusTreeDemo.BPlusTree(order, false);
+            for (int k : keys) {
+                inserted.insert(k);
+            }
+            report(print, "insert() per key", start, inserted, keyCount);
+        }
+    }
+
+    private static void report(boolean print, String method, long start, BPlusTreeDemo.BPlusTree tree, int keyCount) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (tree.count(Integer.MIN_VALUE, Integer.MAX_VALUE) != keyCount || !tree.contains(keyCount - 1)) {
+            throw new IllegalStateException(method + " built an incomplete tree");
+        }
+        if (print) {
+            System.out.println(String.format("%-22s %10.2f %8d %13.1f%%",
+                    method, seconds, tree.height(), tree.leafUtilization() * 100));
+        }
+    }
+}
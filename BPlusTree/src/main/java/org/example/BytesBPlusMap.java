@@ -0,0 +1,361 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * B+ tree index from byte[] keys (unsigned lexicographic order) to V, built to
+ * keep long, similar keys such as URLs or usernames compact.
+ *
+ * - Prefix compression: each leaf stores the prefix shared by all its keys
+ *   once, and packs the remaining suffixes back to back in one byte[]
+ *   addressed by an int[] of end offsets. No per-key array objects.
+ * - Suffix truncation: a leaf split promotes the shortest prefix of the right
+ *   node's first key that still sorts above the left node's last key. Short
+ *   separators keep internal nodes small.
+ *
+ * String keys are stored as UTF-8, whose byte order matches code point order.
+ */
+public class BytesBPlusMap<V> {
+
+    static final class Node {
+        final boolean isLeaf;
+        int keyCount;
+
+        // Leaves
+        byte[] prefix;
+        byte[] data;
+        int[] ends;      // suffix i is data[ends[i - 1] .. ends[i]), with ends[-1] = 0
+        Object[] values;
+        Node next;       // leaf chain
+
+        // Internal nodes
+        byte[][] separators;
+        Node[] children;
+
+        Node(boolean isLeaf, int order) {
+            this.isLeaf = isLeaf;
+            if (isLeaf) {
+                this.prefix = EMPTY;
+                this.data = EMPTY;
+                this.ends = new int[order];
+                this.values = new Object[order];
+            } else {
+                this.separators = new byte[order][];
+                this.children = new Node[order + 1];
+            }
+        }
+
+        int start(int i) {
+            return i == 0 ? 0 : ends[i - 1];
+        }
+
+        int dataLength() {
+            return keyCount == 0 ? 0 : ends[keyCount - 1];
+        }
+
+        byte[] fullKey(int i) {
+            int start = start(i);
+            byte[] key = Arrays.copyOf(prefix, prefix.length + ends[i] - start);
+            System.arraycopy(data, start, key, prefix.length, ends[i] - start);
+            return key;
+        }
+    }
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int order;
+    private Node root;
+    private long size;
+
+    private byte[] splitKey;
+    private Object previous;
+
+    public BytesBPlusMap(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("order must be at least 3: " + order);
+        }
+        this.order = order;
+        this.root = new Node(true, order);
+    }
+
+    // ---------- PUT ----------
+    public V put(String key, V value) {
+        return put(key.getBytes(StandardCharsets.UTF_8), value);
+    }
+
+    // Returns the value previously stored under `key`, or null. The key array is copied.
+    public V put(byte[] key, V value) {
+        previous = null;
+        Node right = putInternal(root, key, value);
+        if (right != null) {
+            Node newRoot = new Node(false, order);
+            newRoot.separators[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.keyCount = 1;
+            root = newRoot;
+        }
+        @SuppressWarnings("unchecked")
+        V old = (V) previous;
+        return old;
+    }
+
+    private Node putInternal(Node node, byte[] key, V value) {
+        if (node.isLeaf) {
+            int n = node.keyCount;
+            int idx = search(node, key);
+            if (idx >= 0) {
+                previous = node.values[idx];
+                node.values[idx] = value;
+                return null;
+            }
+            idx = -idx - 1;
+            if (!startsWith(key, node.prefix)) {
+                shortenPrefix(node, commonPrefix(node.prefix, key, node.prefix.length));
+            }
+            insertSuffix(node, idx, key, node.prefix.length);
+            node.values[idx] = value;
+            size++;
+            return node.keyCount >= order ? splitLeaf(node, idx == n) : null;
+        }
+
+        int idx = upperBound(node, key);
+        Node right = putInternal(node.children[idx], key, value);
+        if (right != null) {
+            int n = node.keyCount;
+            System.arraycopy(node.separators, idx, node.separators, idx + 1, n - idx);
+            System.arraycopy(node.children, idx + 1, node.children, idx + 2, n - idx);
+            node.separators[idx] = splitKey;
+            node.children[idx + 1] = right;
+            node.keyCount = n + 1;
+            if (node.keyCount >= order) {
+                return splitInternal(node, idx == n);
+            }
+        }
+        return null;
+    }
+
+    // ---------- LEAF LAYOUT ----------
+    private void insertSuffix(Node leaf, int idx, byte[] key, int from) {
+        int n = leaf.keyCount;
+        int len = key.length - from;
+        int at = leaf.start(idx);
+        int used = leaf.dataLength();
+        if (used + len > leaf.data.length) {
+            leaf.data = Arrays.copyOf(leaf.data, Math.max(used + len, leaf.data.length + (leaf.data.length >> 1) + 16));
+        }
+        System.arraycopy(leaf.data, at, leaf.data, at + len, used - at);
+        System.arraycopy(key, from, leaf.data, at, len);
+
+        System.arraycopy(leaf.ends, idx, leaf.ends, idx + 1, n - idx);
+        System.arraycopy(leaf.values, idx, leaf.values, idx + 1, n - idx);
+        leaf.ends[idx] = at + len;
+        for (int i = idx + 1; i <= n; i++) {
+            leaf.ends[i] += len;
+        }
+        leaf.keyCount = n + 1;
+    }
+
+    // Cuts the shared prefix back to its first `keep` bytes, moving the rest
+    // in front of every suffix.
+    private static void shortenPrefix(Node leaf, int keep) {
+        byte[] moved = Arrays.copyOfRange(leaf.prefix, keep, leaf.prefix.length);
+        int n = leaf.keyCount;
+        byte[] data = new byte[leaf.dataLength() + n * moved.length];
+        int pos = 0;
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            int len = leaf.ends[i] - start;
+            start = leaf.ends[i];
+            System.arraycopy(moved, 0, data, pos, moved.length);
+            System.arraycopy(leaf.data, start - len, data, pos + moved.length, len);
+            pos += moved.length + len;
+            leaf.ends[i] = pos;
+        }
+        leaf.data = data;
+        leaf.prefix = Arrays.copyOf(leaf.prefix, keep);
+    }
+
+    // Moves entries [from, to) of `src` into empty leaf `dst`, giving `dst` the
+    // longest prefix those entries share (the LCP of the first and last, as they are sorted).
+    private static void repack(Node src, int from, int to, Node dst) {
+        int shared = 0;
+        if (to - from > 1) {
+            int a = src.start(from), b = src.start(to - 1);
+            int limit = Math.min(src.ends[from] - a, src.ends[to - 1] - b);
+            while (shared < limit && src.data[a + shared] == src.data[b + shared]) {
+                shared++;
+            }
+        } else if (to - from == 1) {
+            shared = src.ends[from] - src.start(from);
+        }
+
+        byte[] prefix = Arrays.copyOf(src.prefix, src.prefix.length + shared);
+        System.arraycopy(src.data, src.start(from), prefix, src.prefix.length, shared);
+
+        byte[] data = new byte[src.start(to) - src.start(from) - (to - from) * shared];
+        int pos = 0;
+        for (int i = from; i < to; i++) {
+            int start = src.start(i) + shared;
+            int len = src.ends[i] - start;
+            System.arraycopy(src.data, start, data, pos, len);
+            pos += len;
+            dst.ends[i - from] = pos;
+            dst.values[i - from] = src.values[i];
+        }
+        dst.prefix = prefix;
+        dst.data = data;
+        dst.keyCount = to - from;
+    }
+
+    // ---------- SPLITS ----------
+    private Node splitLeaf(Node leaf, boolean appended) {
+        int n = leaf.keyCount;
+        int mid = appended ? n - 1 : n / 2;
+        byte[] leftLast = leaf.fullKey(mid - 1);
+        byte[] rightFirst = leaf.fullKey(mid);
+
+        Node left = new Node(true, order);
+        Node right = new Node(true, order);
+        repack(leaf, 0, mid, left);
+        repack(leaf, mid, n, right);
+
+        // Reuse the original node object for the left half so parents stay valid
+        leaf.prefix = left.prefix;
+        leaf.data = left.data;
+        System.arraycopy(left.ends, 0, leaf.ends, 0, mid);
+        Arrays.fill(leaf.values, mid, n, null);
+        leaf.keyCount = mid;
+
+        right.next = leaf.next;
+        leaf.next = right;
+
+        // Shortest prefix of rightFirst that sorts above leftLast
+        int cut = commonPrefix(leftLast, rightFirst, leftLast.length) + 1;
+        splitKey = Arrays.copyOf(rightFirst, Math.min(cut, rightFirst.length));
+        return right;
+    }
+
+    private Node splitInternal(Node node, boolean appended) {
+        int n = node.keyCount;
+        int mid = appended ? n - 2 : n / 2;
+        int moved = n - mid - 1;
+        Node right = new Node(false, order);
+        System.arraycopy(node.separators, mid + 1, right.separators, 0, moved);
+        System.arraycopy(node.children, mid + 1, right.children, 0, moved + 1);
+        right.keyCount = moved;
+        splitKey = node.separators[mid];
+        Arrays.fill(node.separators, mid, n, null);
+        Arrays.fill(node.children, mid + 1, n + 1, null);
+        node.keyCount = mid;
+        return right;
+    }
+
+    // ---------- QUERY ----------
+    public V get(String key) {
+        return get(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public V get(byte[] key) {
+        Node leaf = findLeaf(key);
+        int idx = search(leaf, key);
+        if (idx < 0) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        V value = (V) leaf.values[idx];
+        return value;
+    }
+
+    public boolean containsKey(byte[] key) {
+        return search(findLeaf(key), key) >= 0;
+    }
+
+    // Calls `action` for every entry with from <= key <= to, in key order.
+    @SuppressWarnings("unchecked")
+    public void forEachInRange(byte[] from, byte[] to, BiConsumer<byte[], ? super V> action) {
+        Node leaf = root;
+        while (!leaf.isLeaf) {
+            leaf = leaf.children[lowerBound(leaf, from)];
+        }
+        int i = search(leaf, from);
+        for (i = i >= 0 ? i : -i - 1; leaf != null; leaf = leaf.next, i = 0) {
+            for (; i < leaf.keyCount; i++) {
+                byte[] key = leaf.fullKey(i);
+                if (Arrays.compareUnsigned(key, to) > 0) {
+                    return;
+                }
+                action.accept(key, (V) leaf.values[i]);
+            }
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // ---------- HELPERS ----------
+    private Node findLeaf(byte[] key) {
+        Node node = root;
+        while (!node.isLeaf) {
+            node = node.children[upperBound(node, key)];
+        }
+        return node;
+    }
+
+    // Index of `key` in the leaf, or -(insertion point) - 1 if absent.
+    private static int search(Node leaf, byte[] key) {
+        int n = leaf.keyCount;
+        byte[] prefix = leaf.prefix;
+        if (n == 0) {
+            return -1;
+        }
+        if (!startsWith(key, prefix)) {
+            // Every stored key starts with the prefix, so key sorts before or after all of them
+            return Arrays.compareUnsigned(key, prefix) < 0 ? -1 : -(n + 1);
+        }
+        int lo = 0, hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Arrays.compareUnsigned(leaf.data, leaf.start(mid), leaf.ends[mid],
+                    key, prefix.length, key.length);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private static int upperBound(Node node, byte[] key) {
+        int lo = 0, hi = node.keyCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Arrays.compareUnsigned(node.separators[mid], key) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(Node node, byte[] key) {
+        int lo = 0, hi = node.keyCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Arrays.compareUnsigned(node.separators[mid], key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length
+                && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static int commonPrefix(byte[] a, byte[] b, int limit) {
+        int max = Math.min(limit, Math.min(a.length, b.length));
+        int mismatch = Arrays.mismatch(a, 0, max, b, 0, max);
+        return mismatch < 0 ? max : mismatch;
+    }
+}
@@ -0,0 +1,267 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * In-memory B+ tree of int keys whose nodes are laid out in whole cache lines.
+ *
+ * There are no node objects. Nodes are ids into flat int pools:
+ *   leaves   leafKeys: 16 key slots per leaf, one 64-byte line
+ *   internal inner: 32 ints per node, two adjacent lines. Slots 0..15 hold
+ *            up to 15 separators and slots 16..31 up to 16 child ids.
+ * Unused key slots hold Integer.MAX_VALUE and unused child slots repeat the
+ * last child, so a lookup needs neither the key count nor an isLeaf flag. It
+ * descends height - 1 internal nodes, touching one line pair per level, then
+ * one leaf line. Key counts and the leaf chain live in separate arrays that
+ * only updates read.
+ *
+ * The search inside a node is a fixed five-step binary search over all 16
+ * slots. It is written with arithmetic instead of branches, so every lookup
+ * takes the same path through the code and the CPU has nothing to mispredict.
+ *
+ * Set semantics like BPlusTreeDemo.BPlusTree. No remove.
+ */
+public class CacheLineBPlusTree {
+
+    static final int SLOTS = 16;
+    static final int LEAF_KEYS = SLOTS;
+    static final int INNER_KEYS = SLOTS - 1;
+    private static final int INNER_STRIDE = 2 * SLOTS;
+    private static final int PAD = Integer.MAX_VALUE;
+
+    private int[] leafKeys = new int[0];
+    private int[] leafCount = new int[0];
+    private int[] leafNext = new int[0];
+    private int leaves;
+
+    private int[] inner = new int[0];
+    private int[] innerCount = new int[0];
+    private int inners;
+
+    private int root;
+    private int height = 1;
+    private long size;
+
+    // Set by a split: the separator and the new right sibling's id
+    private int splitKey;
+    private int splitNode;
+
+    public CacheLineBPlusTree() {
+        root = newLeaf();
+    }
+
+    // ---------- INSERT ----------
+    // Returns false (and leaves the tree unchanged) if the key is already present.
+    public boolean insert(int key) {
+        int result = insert(root, height, key);
+        if (result == DUPLICATE) {
+            return false;
+        }
+        if (result == SPLIT) {
+            int newRoot = newInner();
+            int o = newRoot * INNER_STRIDE;
+            inner[o] = splitKey;
+            inner[o + SLOTS] = root;
+            Arrays.fill(inner, o + SLOTS + 1, o + INNER_STRIDE, splitNode);
+            innerCount[newRoot] = 1;
+            root = newRoot;
+            height++;
+        }
+        size++;
+        return true;
+    }
+
+    private static final int DONE = 0;
+    private static final int SPLIT = 1;
+    private static final int DUPLICATE = 2;
+
+    private int insert(int node, int level, int key) {
+        if (level == 1) {
+            return insertIntoLeaf(node, key);
+        }
+        // The split below needs the real slot, not a padded one
+        int c = Math.min(childIndex(node * INNER_STRIDE, key), innerCount[node]);
+        int result = insert(inner[node * INNER_STRIDE + SLOTS + c], level - 1, key);
+        if (result != SPLIT) {
+            return result;
+        }
+        return insertIntoInner(node, c, splitKey, splitNode);
+    }
+
+    private int insertIntoLeaf(int leaf, int key) {
+        int o = leaf * LEAF_KEYS;
+        int n = leafCount[leaf];
+        int pos = lowerBound(leafKeys, o, key);
+        if (pos < n && leafKeys[o + pos] == key) {
+            return DUPLICATE;
+        }
+        if (n < LEAF_KEYS) {
+            System.arraycopy(leafKeys, o + pos, leafKeys, o + pos + 1, n - pos);
+            leafKeys[o + pos] = key;
+            leafCount[leaf] = n + 1;
+            return DONE;
+        }
+
+        int right = newLeaf();
+        int ro = right * LEAF_KEYS;
+        if (pos == LEAF_KEYS) {
+            // Append at the right edge: the full leaf stays full
+            leafKeys[ro] = key;
+            leafCount[right] = 1;
+        } else {
+            int half = LEAF_KEYS / 2;
+            System.arraycopy(leafKeys, o + half, leafKeys, ro, half);
+            Arrays.fill(leafKeys, o + half, o + LEAF_KEYS, PAD);
+            leafCount[leaf] = half;
+            leafCount[right] = half;
+            if (pos <= half) {
+                System.arraycopy(leafKeys, o + pos, leafKeys, o + pos + 1, half - pos);
+                leafKeys[o + pos] = key;
+                leafCount[leaf] = half + 1;
+            } else {
+                int rp = pos - half;
+                System.arraycopy(leafKeys, ro + rp, leafKeys, ro + rp + 1, half - rp);
+                leafKeys[ro + rp] = key;
+                leafCount[right] = half + 1;
+            }
+        }
+        leafNext[right] = leafNext[leaf];
+        leafNext[leaf] = right;
+        splitKey = leafKeys[ro];
+        splitNode = right;
+        return SPLIT;
+    }
+
+    // Inserts separator `key` with `child` to its right at position pos.
+    private int insertIntoInner(int node, int pos, int key, int child) {
+        int n = innerCount[node];
+        if (n < INNER_KEYS) {
+            int o = node * INNER_STRIDE;
+            System.arraycopy(inner, o + pos, inner, o + pos + 1, n - pos);
+            System.arraycopy(inner, o + SLOTS + pos + 1, inner, o + SLOTS + pos + 2, n - pos);
+            inner[o + pos] = key;
+            inner[o + SLOTS + pos + 1] = child;
+            Arrays.fill(inner, o + SLOTS + n + 2, o + INNER_STRIDE, inner[o + SLOTS + n + 1]);
+            innerCount[node] = n + 1;
+            return DONE;
+        }
+
+        // Lay out all 16 keys / 17 children, then cut
+        int o = node * INNER_STRIDE;
+        int[] keys = new int[INNER_KEYS + 1];
+        int[] children = new int[INNER_KEYS + 2];
+        System.arraycopy(inner, o, keys, 0, pos);
+        keys[pos] = key;
+        System.arraycopy(inner, o + pos, keys, pos + 1, n - pos);
+        System.arraycopy(inner, o + SLOTS, children, 0, pos + 1);
+        children[pos + 1] = child;
+        System.arraycopy(inner, o + SLOTS + pos + 1, children, pos + 2, n - pos);
+
+        // Right-edge append keeps one key on the right so it has two children
+        int mid = pos == INNER_KEYS ? INNER_KEYS - 1 : (INNER_KEYS + 1) / 2;
+        int right = newInner();
+        setInner(node, keys, children, 0, mid);
+        setInner(right, keys, children, mid + 1, INNER_KEYS - mid);
+        splitKey = keys[mid];
+        splitNode = right;
+        return SPLIT;
+    }
+
+    // Fills `node` with keys[from, from + count) and the children around them,
+    // padding the unused slots.
+    private void setInner(int node, int[] keys, int[] children, int from, int count) {
+        int o = node * INNER_STRIDE;
+        System.arraycopy(keys, from, inner, o, count);
+        Arrays.fill(inner, o + count, o + SLOTS, PAD);
+        System.arraycopy(children, from, inner, o + SLOTS, count + 1);
+        Arrays.fill(inner, o + SLOTS + count + 1, o + INNER_STRIDE, children[from + count]);
+        innerCount[node] = count;
+    }
+
+    // ---------- QUERY ----------
+    public boolean contains(int key) {
+        int node = root;
+        for (int level = height; level > 1; level--) {
+            int o = node * INNER_STRIDE;
+            node = inner[o + SLOTS + childIndex(o, key)];
+        }
+        int o = node * LEAF_KEYS;
+        int pos = Math.min(lowerBound(leafKeys, o, key), LEAF_KEYS - 1);
+        // Padding equals MAX_VALUE, so only that key needs the count
+        return leafKeys[o + pos] == key && (key != PAD || pos < leafCount[node]);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    // Bytes held by the node pools (allocated capacity, not just the nodes in use).
+    public long memoryBytes() {
+        return 4L * (leafKeys.length + leafCount.length + leafNext.length + inner.length + innerCount.length);
+    }
+
+    // ---------- NODE SEARCH ----------
+    // Child slot to descend into: number of separators <= key. Slot 15 is
+    // always padding; it only counts for key == MAX_VALUE, and the padded
+    // child slots make any index past the last real child land on it.
+    private int childIndex(int o, int key) {
+        return Math.min(upperBound(inner, o, key), SLOTS - 1);
+    }
+
+    // First slot in a[o..o+16) whose key is >= key (16 if none). Branch-free
+    // binary search: halve the window four times, then check the last slot.
+    static int lowerBound(int[] a, int o, int key) {
+        int i = less(a[o + 8], key) << 3;
+        i += less(a[o + i + 4], key) << 2;
+        i += less(a[o + i + 2], key) << 1;
+        i += less(a[o + i + 1], key);
+        return i + less(a[o + i], key);
+    }
+
+    // First slot in a[o..o+16) whose key is > key (16 if none).
+    static int upperBound(int[] a, int o, int key) {
+        int i = notGreater(a[o + 8], key) << 3;
+        i += notGreater(a[o + i + 4], key) << 2;
+        i += notGreater(a[o + i + 2], key) << 1;
+        i += notGreater(a[o + i + 1], key);
+        return i + notGreater(a[o + i], key);
+    }
+
+    // 1 if a < b, else 0: the sign bit of the exact (long) difference.
+    private static int less(int a, int b) {
+        return (int) (((long) a - b) >>> 63);
+    }
+
+    // 1 if a <= b, else 0.
+    private static int notGreater(int a, int b) {
+        return (int) (((long) a - b - 1) >>> 63);
+    }
+
+    // ---------- POOLS ----------
+    private int newLeaf() {
+        if (leaves == leafCount.length) {
+            int capacity = Math.max(16, leaves * 2);
+            leafKeys = Arrays.copyOf(leafKeys, capacity * LEAF_KEYS);
+            Arrays.fill(leafKeys, leaves * LEAF_KEYS, leafKeys.length, PAD);
+            leafCount = Arrays.copyOf(leafCount, capacity);
+            leafNext = Arrays.copyOf(leafNext, capacity);
+        }
+        leafNext[leaves] = -1;
+        return leaves++;
+    }
+
+    private int newInner() {
+        if (inners == innerCount.length) {
+            int capacity = Math.max(16, inners * 2);
+            inner = Arrays.copyOf(inner, capacity * INNER_STRIDE);
+            innerCount = Arrays.copyOf(innerCount, capacity);
+        }
+        int o = inners * INNER_STRIDE;
+        Arrays.fill(inner, o, o + SLOTS, PAD);
+        return inners++;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Constant-size churn against BPlusTreeDemo.BPlusTree: every cycle removes
+ * one live key and inserts a fresh one, so a healthy tree should hold steady
+ * in heap, height and lookup latency no matter how many cycles have run.
+ *
+ * Two workloads:
+ *  - sliding window: keys arrive in ascending order and expire oldest-first (TTL style)
+ *  - random: a random live key is replaced by a new random key
+ *
+ * Usage: java org.example.ChurnBenchmark [liveKeys] [cycles] [order]
+ */
+public class ChurnBenchmark {
+
+    private static final int REPORTS = 10;
+    private static final int PROBES = 200_000;
+
+    public static void main(String[] args) {
+        int liveKeys = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long cycles = args.length > 1 ? Long.parseLong(args[1]) : 5_000_000L;
+        int order = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        System.out.println("Live keys: " + liveKeys + " | cycles: " + cycles + " | order: " + order);
+        slidingWindow(liveKeys, cycles, order);
+        randomChurn(liveKeys, cycles, order);
+    }
+
+    private static void slidingWindow(int liveKeys, long cycles, int order) {
+        System.out.println("\n--- Sliding window (insert newest, remove oldest) ---");
+        printHeader();
+
+        BPlusTreeDemo.BPlusTree tree = new BPlusTreeDemo.BPlusTree(order, false);
+        for (int k = 0; k < liveKeys; k++) {
+            tree.insert(k);
+        }
+
+        Random random = new Random(7);
+        int oldest = 0;
+        int newest = liveKeys;
+        long step = cycles / REPORTS;
+        for (long c = 1; c <= cycles; c++) {
+            check(tree.remove(oldest++), "remove");
+            check(tree.insert(newest++), "insert");
+
+            if (c % step == 0) {
+                int[] probes = new int[PROBES];
+                for (int i = 0; i < PROBES; i++) {
+                    probes[i] = oldest + random.nextInt(liveKeys);
+                }
+                report(c, tree, probes);
+            }
+        }
+    }
+
+    private static void randomChurn(int liveKeys, long cycles, int order) {
+        System.out.println("\n--- Random churn (replace a random live key) ---");
+        printHeader();
+
+        BPlusTreeDemo.BPlusTree tree = new BPlusTreeDemo.BPlusTree(order, false);
+        Random random = new Random(11);
+        int[] live = new int[liveKeys];
+        for (int i = 0; i < liveKeys; i++) {
+            live[i] = freshKey(tree, random);
+        }
+
+        long step = cycles / REPORTS;
+        for (long c = 1; c <= cycles; c++) {
+            int slot = random.nextInt(liveKeys);
+            check(tree.remove(live[slot]), "remove");
+            live[slot] = freshKey(tree, random);
+
+            if (c % step == 0) {
+                int[] probes = new int[PROBES];
+                for (int i = 0; i < PROBES; i++) {
+                    probes[i] = live[random.nextInt(liveKeys)];
+                }
+                report(c, tree, probes);
+            }
+        }
+    }
+
+    private static int freshKey(BPlusTreeDemo.BPlusTree tree, Random random) {
+        int key;
+        do {
+            key = random.nextInt();
+        } while (!tree.insert(key));
+        return key;
+    }
+
+    private static void printHeader() {
+        System.out.println(String.format("%12s %8s %12s %14s", "cycles", "height", "heap MB", "lookup ns/op"));
+    }
+
+    private static void report(long cycle, BPlusTreeDemo.BPlusTree tree, int[] probes) {
+        long start = System.nanoTime();
+        for (int k : probes) {
+            check(tree.contains(k), "lookup");
+        }
+        double nsPerLookup = (double) (System.nanoTime() - start) / probes.length;
+
+        System.out.println(String.format("%12d %8d %12.1f %14.1f",
+                cycle, tree.height(), usedHeap() / (1024.0 * 1024.0), nsPerLookup));
+    }
+
+    private static void check(boolean ok, String op) {
+        if (!ok) {
+            throw new IllegalStateException(op + " failed: tree lost or duplicated a key");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
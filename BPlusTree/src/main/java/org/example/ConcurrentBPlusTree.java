@@ -0,0 +1,334 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe int-key B+ tree using optimistic lock coupling (OLC).
+ *
+ * Every node carries a StampedLock that doubles as its version counter:
+ *  - readers take an optimistic stamp, read the node, and validate the stamp
+ *    before trusting what they read. Lookups never block or write shared memory.
+ *  - writers descend the same way and only upgrade the stamps of the nodes they
+ *    actually modify (the leaf, plus its parent when a split is needed).
+ *
+ * Full nodes are split on the way down, so a split only ever needs to latch the
+ * node and its parent. Any failed validation or upgrade restarts the operation
+ * from the root. Keys are unique; there is no remove() in this variant.
+ */
+public class ConcurrentBPlusTree {
+
+    static final class Node {
+        final StampedLock latch = new StampedLock();
+        final boolean isLeaf;
+        // Nodes split as soon as they hold order - 1 keys, so that is all they ever need
+        final int[] keys;
+        final Node[] children; // null for leaves
+        int keyCount;
+        Node next; // leaf chain
+
+        Node(boolean isLeaf, int order) {
+            this.isLeaf = isLeaf;
+            this.keys = new int[order - 1];
+            this.children = isLeaf ? null : new Node[order];
+        }
+
+        boolean isFull() {
+            return keyCount == keys.length;
+        }
+    }
+
+    private final int order;
+    private volatile Node root;
+
+    public ConcurrentBPlusTree(int order) {
+        if (order < 4) {
+            throw new IllegalArgumentException("order must be at least 4: " + order);
+        }
+        this.order = order;
+        this.root = new Node(true, order);
+    }
+
+    // ---------- QUERY ----------
+    public boolean contains(int key) {
+        while (true) {
+            Node node = root;
+            long stamp = node.latch.tryOptimisticRead();
+            if (stamp == 0 || node != root) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            boolean restart = false;
+            while (!node.isLeaf) {
+                Node child = node.children[childIndex(node, key)];
+                if (child == null || !node.latch.validate(stamp)) {
+                    restart = true;
+                    break;
+                }
+                long childStamp = child.latch.tryOptimisticRead();
+                // Re-check the parent so the child pointer we followed was current
+                if (childStamp == 0 || !node.latch.validate(stamp)) {
+                    restart = true;
+                    break;
+                }
+                node = child;
+                stamp = childStamp;
+            }
+            if (restart) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int n = clampedCount(node);
+            int idx = lowerBound(node.keys, n, key);
+            boolean found = idx < n && node.keys[idx] == key;
+            if (node.latch.validate(stamp)) {
+                return found;
+            }
+        }
+    }
+
+    // Number of keys in [from, to]. Each leaf is counted under its own validated
+    // snapshot, so the result is exact when no writer runs concurrently and
+    // otherwise reflects some interleaving of the inserts it overlaps.
+    public long count(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        long total = 0;
+        int resumeFrom = from;
+        Node leaf = findFirstLeaf(resumeFrom);
+        while (leaf != null) {
+            long stamp = leaf.latch.tryOptimisticRead();
+            if (stamp == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int n = clampedCount(leaf);
+            int start = lowerBound(leaf.keys, n, resumeFrom);
+            int end = upperBound(leaf.keys, n, to);
+            int last = n > 0 ? leaf.keys[n - 1] : resumeFrom;
+            Node next = leaf.next;
+            if (!leaf.latch.validate(stamp)) {
+                continue;
+            }
+
+            total += Math.max(0, end - start);
+            if (n > 0 && last >= to) {
+                break;
+            }
+            // Keys that later move into a new right sibling are already counted
+            if (n > 0) {
+                if (last == Integer.MAX_VALUE) {
+                    break;
+                }
+                resumeFrom = Math.max(resumeFrom, last + 1);
+            }
+            leaf = next;
+        }
+        return total;
+    }
+
+    // ---------- INSERT ----------
+    // Returns false if the key is already present.
+    public boolean insert(int key) {
+        while (true) {
+            int result = tryInsert(key);
+            if (result != RESTART) {
+                return result == INSERTED;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static final int RESTART = -1;
+    private static final int DUPLICATE = 0;
+    private static final int INSERTED = 1;
+
+    private int tryInsert(int key) {
+        Node node = root;
+        long stamp = node.latch.tryOptimisticRead();
+        if (stamp == 0 || node != root) {
+            return RESTART;
+        }
+        Node parent = null;
+        long parentStamp = 0;
+
+        while (true) {
+            if (node.isFull()) {
+                // Latch parent and node, split, and retry from the top
+                splitAndRestart(parent, parentStamp, node, stamp);
+                return RESTART;
+            }
+            if (node.isLeaf) {
+                break;
+            }
+
+            Node child = node.children[childIndex(node, key)];
+            if (child == null || !node.latch.validate(stamp)) {
+                return RESTART;
+            }
+            long childStamp = child.latch.tryOptimisticRead();
+            if (childStamp == 0 || !node.latch.validate(stamp)) {
+                return RESTART;
+            }
+            parent = node;
+            parentStamp = stamp;
+            node = child;
+            stamp = childStamp;
+        }
+
+        long writeStamp = node.latch.tryConvertToWriteLock(stamp);
+        if (writeStamp == 0) {
+            return RESTART;
+        }
+        try {
+            int n = node.keyCount;
+            int idx = lowerBound(node.keys, n, key);
+            if (idx < n && node.keys[idx] == key) {
+                return DUPLICATE;
+            }
+            System.arraycopy(node.keys, idx, node.keys, idx + 1, n - idx);
+            node.keys[idx] = key;
+            node.keyCount = n + 1;
+            return INSERTED;
+        } finally {
+            node.latch.unlockWrite(writeStamp);
+        }
+    }
+
+    // Splits a full node once both it and its parent are write-latched. The
+    // parent cannot be full: it was checked on the way down and the stamp
+    // upgrade proves it has not changed since.
+    private void splitAndRestart(Node parent, long parentStamp, Node node, long stamp) {
+        long parentWrite = 0;
+        if (parent != null) {
+            parentWrite = parent.latch.tryConvertToWriteLock(parentStamp);
+            if (parentWrite == 0) {
+                return;
+            }
+        }
+        long nodeWrite = node.latch.tryConvertToWriteLock(stamp);
+        if (nodeWrite == 0) {
+            if (parent != null) parent.latch.unlockWrite(parentWrite);
+            return;
+        }
+
+        try {
+            if (parent == null && node != root) {
+                return;
+            }
+            Node right = new Node(node.isLeaf, order);
+            int separator = node.isLeaf ? splitLeaf(node, right) : splitInternal(node, right);
+
+            if (parent == null) {
+                Node newRoot = new Node(false, order);
+                newRoot.keys[0] = separator;
+                newRoot.children[0] = node;
+                newRoot.children[1] = right;
+                newRoot.keyCount = 1;
+                // Published while the old root is still latched, so a reader that
+                // gets a valid stamp on the old root afterwards sees it is no longer root
+                root = newRoot;
+            } else {
+                int n = parent.keyCount;
+                int idx = upperBound(parent.keys, n, separator);
+                System.arraycopy(parent.keys, idx, parent.keys, idx + 1, n - idx);
+                System.arraycopy(parent.children, idx + 1, parent.children, idx + 2, n - idx);
+                parent.keys[idx] = separator;
+                parent.children[idx + 1] = right;
+                parent.keyCount = n + 1;
+            }
+        } finally {
+            node.latch.unlockWrite(nodeWrite);
+            if (parent != null) parent.latch.unlockWrite(parentWrite);
+        }
+    }
+
+    private static int splitLeaf(Node leaf, Node right) {
+        int n = leaf.keyCount;
+        int mid = n / 2;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, n - mid);
+        right.keyCount = n - mid;
+        right.next = leaf.next;
+        leaf.next = right;
+        leaf.keyCount = mid;
+        return right.keys[0];
+    }
+
+    private static int splitInternal(Node node, Node right) {
+        int n = node.keyCount;
+        int mid = n / 2;
+        int moved = n - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, moved);
+        System.arraycopy(node.children, mid + 1, right.children, 0, moved + 1);
+        right.keyCount = moved;
+        node.keyCount = mid;
+        // A reader that still picks up a cleared slot sees null and restarts
+        Arrays.fill(node.children, mid + 1, n + 1, null);
+        return node.keys[mid];
+    }
+
+    // ---------- HELPERS ----------
+    private Node findFirstLeaf(int key) {
+        while (true) {
+            Node node = root;
+            long stamp = node.latch.tryOptimisticRead();
+            if (stamp == 0 || node != root) {
+                Thread.onSpinWait();
+                continue;
+            }
+            boolean restart = false;
+            while (!node.isLeaf) {
+                Node child = node.children[lowerBound(node.keys, clampedCount(node), key)];
+                if (child == null || !node.latch.validate(stamp)) {
+                    restart = true;
+                    break;
+                }
+                long childStamp = child.latch.tryOptimisticRead();
+                if (childStamp == 0 || !node.latch.validate(stamp)) {
+                    restart = true;
+                    break;
+                }
+                node = child;
+                stamp = childStamp;
+            }
+            if (!restart) {
+                return node;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static int childIndex(Node node, int key) {
+        return upperBound(node.keys, clampedCount(node), key);
+    }
+
+    // An optimistic reader can see keyCount mid-update; keep array accesses in bounds
+    // and let stamp validation throw the result away.
+    private static int clampedCount(Node node) {
+        int n = node.keyCount;
+        return n < 0 ? 0 : Math.min(n, node.keys.length);
+    }
+
+    private static int lowerBound(int[] keys, int n, int key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(int[] keys, int n, int key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Throughput comparison for ConcurrentBPlusTree: a 90% lookup / 10% insert mix
+ * at 1..N threads, against the single-threaded BPlusTreeDemo.BPlusTree behind
+ * one global read/write lock. The concurrent correctness check lives in
+ * ConcurrentBPlusTreeStressTest.
+ *
+ * Usage: java org.example.ConcurrentBPlusTreeBenchmark [maxThreads] [order] [secondsPerRun]
+ */
+public class ConcurrentBPlusTreeBenchmark {
+
+    private static final int PRELOAD = 1_000_000;
+    private static final int KEY_SPACE = 1 << 26;
+
+    interface IntSet {
+        boolean insert(int key);
+
+        boolean contains(int key);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        System.out.println("--- Throughput: 90% contains / 10% insert, " + PRELOAD + " preloaded keys ---");
+        System.out.println(String.format("%8s %18s %18s", "threads", "OLC ops/s", "global lock ops/s"));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double olc = throughput(olcTree(order), threads, seconds);
+            double locked = throughput(globalLockTree(order), threads, seconds);
+            System.out.println(String.format("%8d %18.0f %18.0f", threads, olc, locked));
+        }
+    }
+
+    // ---------- THROUGHPUT ----------
+    private static double throughput(IntSet set, int threads, int seconds) throws InterruptedException {
+        for (int i = 0; i < PRELOAD; i++) {
+            set.insert(ThreadLocalRandom.current().nextInt(KEY_SPACE));
+        }
+
+        AtomicLong ops = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> pool = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            pool.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                while ((local & 1023) != 0 || System.nanoTime() < deadline) {
+                    int key = random.nextInt(KEY_SPACE);
+                    if (random.nextInt(10) == 0) {
+                        set.insert(key);
+                    } else {
+                        set.contains(key);
+                    }
+                    local++;
+                }
+                ops.addAndGet(local);
+            }));
+        }
+        pool.forEach(Thread::start);
+        for (Thread t : pool) {
+            t.join();
+        }
+        return ops.get() / (double) seconds;
+    }
+
+    private static IntSet olcTree(int order) {
+        ConcurrentBPlusTree tree = new ConcurrentBPlusTree(order);
+        return new IntSet() {
+            public boolean insert(int key) {
+                return tree.insert(key);
+            }
+
+            public boolean contains(int key) {
+                return tree.contains(key);
+            }
+        };
+    }
+
+    private static IntSet globalLockTree(int order) {
+        BPlusTreeDemo.BPlusTree tree = new BPlusTreeDemo.BPlusTree(order, false);
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        return new IntSet() {
+            public boolean insert(int key) {
+                lock.writeLock().lock();
+                try {
+                    return tree.insert(key);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            public boolean contains(int key) {
+                lock.readLock().lock();
+                try {
+                    return tree.contains(key);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        };
+    }
+}
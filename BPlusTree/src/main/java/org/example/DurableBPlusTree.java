@@ -0,0 +1,198 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BPlusTreeDemo.BPlusTree that survives a crash.
+ *
+ * A directory holds two files:
+ *   checkpoint.snap  the whole key set as of the last checkpoint (BPlusTreeSnapshot format)
+ *   wal.log          every insert/remove since then (WriteAheadLog)
+ *
+ * open() bulk-loads the checkpoint and replays the log on top of it. Each
+ * mutation is logged first and only then applied in memory, so the tree never
+ * holds a change the log does not. It is durable once the log has been synced,
+ * which happens every `syncEvery` records or on sync()/close().
+ * Every `checkpointEvery` records the key set is written to a new checkpoint,
+ * which atomically replaces the old one, and the log is reset.
+ *
+ * A failed log write leaves the tree unchanged, but the record may or may not
+ * have reached the file, so the outcome is only known after a restart. From
+ * then on every mutation, sync() and checkpoint() throw; close and open() the
+ * directory again to continue from what is on disk.
+ *
+ * Replaying set operations is idempotent: a key ends up in the state of the
+ * last record for it. So a crash between installing a checkpoint and
+ * resetting the log is harmless.
+ */
+public class DurableBPlusTree implements Closeable {
+
+    private static final String CHECKPOINT = "checkpoint.snap";
+    private static final String CHECKPOINT_TMP = "checkpoint.tmp";
+    private static final String LOG = "wal.log";
+
+    private final Path dir;
+    private final int order;
+    private final long checkpointEvery;
+    private final WriteAheadLog log;
+    private BPlusTreeDemo.BPlusTree tree;
+    private long sinceCheckpoint;
+    private IOException failure;
+
+    // Recovery statistics
+    private long recoveredRecords;
+    private long recoveryNanos;
+
+    private DurableBPlusTree(Path dir, int order, int syncEvery, long checkpointEvery) throws IOException {
+        this.dir = dir;
+        this.order = order;
+        this.checkpointEvery = checkpointEvery;
+        this.log = new WriteAheadLog(dir.resolve(LOG), syncEvery);
+    }
+
+    // checkpointEvery <= 0 disables automatic checkpoints.
+    public static DurableBPlusTree open(Path dir, int order, int syncEvery, long checkpointEvery) throws IOException {
+        Files.createDirectories(dir);
+        DurableBPlusTree durable = new DurableBPlusTree(dir, order, syncEvery, checkpointEvery);
+        try {
+            durable.recover();
+        } catch (IOException | RuntimeException e) {
+            durable.log.close();
+            throw e;
+        }
+        return durable;
+    }
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        Path checkpoint = dir.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            try (BPlusTreeSnapshot snapshot = BPlusTreeSnapshot.open(checkpoint)) {
+                int[] keys = new int[Math.toIntExact(snapshot.size())];
+                int n = 0;
+                for (BPlusTreeSnapshot.Cursor cursor = snapshot.rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE); cursor.hasNext(); ) {
+                    keys[n++] = cursor.nextInt();
+                }
+                tree = BPlusTreeDemo.BPlusTree.bulkLoad(order, keys, 1.0);
+            }
+        } else {
+            tree = new BPlusTreeDemo.BPlusTree(order, false);
+        }
+        Files.deleteIfExists(dir.resolve(CHECKPOINT_TMP));
+
+        recoveredRecords = log.replay((op, key) -> {
+            if (op == WriteAheadLog.INSERT) {
+                tree.insert(key);
+            } else if (op == WriteAheadLog.REMOVE) {
+                tree.remove(key);
+            } else {
+                throw new IllegalStateException("unknown log record type " + op);
+            }
+        });
+        sinceCheckpoint = recoveredRecords;
+        recoveryNanos = System.nanoTime() - start;
+    }
+
+    // ---------- MUTATIONS ----------
+    public boolean insert(int key) throws IOException {
+        checkUsable();
+        if (tree.contains(key)) {
+            return false;
+        }
+        logged(WriteAheadLog.INSERT, key);
+        tree.insert(key);
+        checkpointIfDue();
+        return true;
+    }
+
+    public boolean remove(int key) throws IOException {
+        checkUsable();
+        if (!tree.contains(key)) {
+            return false;
+        }
+        logged(WriteAheadLog.REMOVE, key);
+        tree.remove(key);
+        checkpointIfDue();
+        return true;
+    }
+
+    private void logged(byte op, int key) throws IOException {
+        try {
+            log.append(op, key);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private void checkpointIfDue() throws IOException {
+        if (checkpointEvery > 0 && ++sinceCheckpoint >= checkpointEvery) {
+            checkpoint();
+        }
+    }
+
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw new IOException("an earlier log write failed; reopen " + dir, failure);
+        }
+    }
+
+    public boolean contains(int key) {
+        return tree.contains(key);
+    }
+
+    public long count(int from, int to) {
+        return tree.count(from, to);
+    }
+
+    // Makes every mutation so far durable.
+    public void sync() throws IOException {
+        checkUsable();
+        try {
+            log.sync();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    // Writes the current key set to a fresh checkpoint and empties the log.
+    // The rename is only durable once the directory itself has been synced;
+    // until then a crash can bring back the old checkpoint, so the log must
+    // not be emptied before that.
+    public void checkpoint() throws IOException {
+        sync();
+        Path tmp = dir.resolve(CHECKPOINT_TMP);
+        BPlusTreeSnapshot.write(tree, tmp);
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+        log.reset();
+        sinceCheckpoint = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    // ---------- STATS ----------
+    public WriteAheadLog log() {
+        return log;
+    }
+
+    public long recoveredRecords() {
+        return recoveredRecords;
+    }
+
+    public long recoveryNanos() {
+        return recoveryNanos;
+    }
+}
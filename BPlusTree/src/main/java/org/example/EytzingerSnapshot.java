@@ -0,0 +1,101 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Read-only key set in B-ary Eytzinger order, for point lookups.
+ *
+ * The sorted keys are cut into blocks of 16 (one cache line), and the blocks
+ * are laid out like an implicit 17-ary heap: block 0 is the root, and the
+ * children of block k are blocks 17k + 1 .. 17k + 17. The layout has no child
+ * pointers. A lookup does one branch-free 16-way search per block, the same
+ * one CacheLineBPlusTree uses, and reads one line per level. That is
+ * log17(n) lines instead of the log2(n) probes of a plain binary search.
+ * The top levels are shared by every lookup, so they stay in cache.
+ *
+ * Built in memory from a BPlusTreeDemo.BPlusTree, a BPlusTreeSnapshot or a
+ * sorted array. It answers contains() only; range scans stay with the
+ * page-ordered snapshot.
+ */
+public final class EytzingerSnapshot {
+
+    private static final int B = CacheLineBPlusTree.SLOTS;
+    private static final int PAD = Integer.MAX_VALUE;
+
+    private final int[] b;
+    private final int blocks;
+    private final int n;
+    private final boolean hasMax; // PAD is a real key, too
+
+    private EytzingerSnapshot(int[] sorted) {
+        this.n = sorted.length;
+        this.blocks = (n + B - 1) / B;
+        this.b = new int[blocks * B];
+        this.hasMax = n > 0 && sorted[n - 1] == PAD;
+        Arrays.fill(b, PAD);
+        fill(sorted, 0, 0);
+    }
+
+    // ---------- BUILD ----------
+    // `sorted` must be strictly ascending.
+    public static EytzingerSnapshot of(int[] sorted) {
+        return new EytzingerSnapshot(sorted);
+    }
+
+    public static EytzingerSnapshot of(BPlusTreeDemo.BPlusTree tree) {
+        int[] keys = new int[Math.toIntExact(tree.count(Integer.MIN_VALUE, Integer.MAX_VALUE))];
+        int i = 0;
+        for (BPlusTreeDemo.Cursor cursor = tree.rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE); cursor.hasNext(); ) {
+            keys[i++] = cursor.nextInt();
+        }
+        return of(keys);
+    }
+
+    public static EytzingerSnapshot of(BPlusTreeSnapshot snapshot) {
+        int[] keys = new int[Math.toIntExact(snapshot.size())];
+        int i = 0;
+        for (BPlusTreeSnapshot.Cursor cursor = snapshot.rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE); cursor.hasNext(); ) {
+            keys[i++] = cursor.nextInt();
+        }
+        return of(keys);
+    }
+
+    // In-order walk of the implicit tree hands out the sorted keys in turn.
+    // Slots left over at the end keep PAD, which sorts after every key.
+    private int fill(int[] sorted, int i, int k) {
+        if (k < blocks) {
+            for (int j = 0; j < B; j++) {
+                i = fill(sorted, i, child(k, j));
+                if (i < n) {
+                    b[k * B + j] = sorted[i++];
+                }
+            }
+            i = fill(sorted, i, child(k, B));
+        }
+        return i;
+    }
+
+    private static int child(int k, int j) {
+        return k * (B + 1) + j + 1;
+    }
+
+    // ---------- QUERY ----------
+    public boolean contains(int key) {
+        if (key == PAD) {
+            return hasMax;
+        }
+        // The last slot >= key on the way down holds the first key >= key
+        int candidate = PAD;
+        for (int k = 0; k < blocks; ) {
+            int o = k * B;
+            int j = CacheLineBPlusTree.lowerBound(b, o, key);
+            candidate = j < B ? b[o + j] : candidate;
+            k = child(k, j);
+        }
+        return candidate == key;
+    }
+
+    public int size() {
+        return n;
+    }
+}
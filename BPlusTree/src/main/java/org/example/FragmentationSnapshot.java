@@ -0,0 +1,110 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Point-in-time fill statistics of a BPlusTreeDemo.BPlusTree, per level.
+ *
+ * Built by BPlusTree.fragmentation() in one walk over the nodes. Nothing is
+ * kept up to date on writes, so take a snapshot when you want the numbers
+ * (a periodic scrape, the end of a benchmark). Level 0 is the root and
+ * height() - 1 is the leaves. Fill is measured against the resting capacity
+ * of order - 1 keys per node.
+ */
+public final class FragmentationSnapshot {
+
+    private final int order;
+    private final long[] nodes;
+    private final long[] keys;
+    private final long[][] histogram;
+
+    FragmentationSnapshot(int order, int height) {
+        this.order = order;
+        this.nodes = new long[height];
+        this.keys = new long[height];
+        this.histogram = new long[height][11];
+    }
+
+    void add(int level, int keyCount) {
+        nodes[level]++;
+        keys[level] += keyCount;
+        histogram[level][Math.min(10, keyCount * 10 / (order - 1))]++;
+    }
+
+    // ---------- READ ----------
+    public int height() {
+        return nodes.length;
+    }
+
+    public long nodes(int level) {
+        return nodes[level];
+    }
+
+    public long keys(int level) {
+        return keys[level];
+    }
+
+    // Share of the level's capacity in use, 0..1.
+    public double utilization(int level) {
+        return (double) keys[level] / (nodes[level] * (order - 1));
+    }
+
+    // Bucket i counts nodes holding [i * 10%, (i + 1) * 10%) of capacity;
+    // bucket 10 counts full nodes.
+    public long[] fillHistogram(int level) {
+        return histogram[level].clone();
+    }
+
+    public long size() {
+        return keys[nodes.length - 1];
+    }
+
+    public double leafUtilization() {
+        return utilization(nodes.length - 1);
+    }
+
+    // Share of the capacity of all nodes, internal and leaf, in use.
+    public double utilization() {
+        long totalNodes = 0;
+        long totalKeys = 0;
+        for (int level = 0; level < nodes.length; level++) {
+            totalNodes += nodes[level];
+            totalKeys += keys[level];
+        }
+        return (double) totalKeys / (totalNodes * (order - 1));
+    }
+
+    // ---------- REPORT ----------
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append("╔════════════════════════════════════════════════════════════╗\n");
+        out.append("║              FRAGMENTATION ANALYSIS REPORT                 ║\n");
+        out.append("╠════════════════════════════════════════════════════════════╣\n");
+        for (int level = 0; level < nodes.length; level++) {
+            String kind = level == nodes.length - 1 ? "Leaves" : "Level " + level;
+            line(out, String.format("%-8s %8d nodes %s %3.0f%%",
+                    kind, nodes[level], bar(utilization(level)), utilization(level) * 100));
+            line(out, "         fill " + Arrays.toString(histogram[level]));
+        }
+        double total = utilization();
+        out.append("╟────────────────────────────────────────────────────────────╢\n");
+        line(out, String.format("Data Records:   %d", size()));
+        line(out, String.format("Utilization:    %s %.0f%%", bar(total), total * 100));
+        line(out, String.format("Fragmentation:  %.0f%%", 100 - total * 100));
+        out.append("╚════════════════════════════════════════════════════════════╝");
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, String text) {
+        out.append(String.format("║ %-58s ║%n", text));
+    }
+
+    private static String bar(double fraction) {
+        int filled = (int) (fraction * 20);
+        StringBuilder bar = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            bar.append(i < filled ? "█" : "░");
+        }
+        return bar.append("]").toString();
+    }
+}
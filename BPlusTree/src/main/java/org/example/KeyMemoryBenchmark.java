@@ -0,0 +1,149 @@
+package org.example;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per entry for realistic string key sets (URLs, usernames) and
+ * for long keys:
+ *  - java.util.TreeMap, as a familiar reference point
+ *  - BPlusMap with String / Long keys (one object per key)
+ *  - BytesBPlusMap (prefix-compressed leaves, truncated separators)
+ *  - LongBPlusMap (primitive long[] keys)
+ * Values are small cached Integers, so the numbers are dominated by keys and structure.
+ *
+ * Usage: java org.example.KeyMemoryBenchmark [entries] [order]
+ */
+public class KeyMemoryBenchmark {
+
+    private static final String[] SITES = {"shop.example.com", "news.example.org", "docs.example.net", "forum.example.io"};
+    private static final String[] SECTIONS = {"products", "articles", "reference", "threads", "users", "search"};
+    private static final String[] FIRST = {"john", "maria", "wei", "aisha", "lukas", "sofia", "omar", "yuki", "ana", "raj"};
+    private static final String[] LAST = {"smith", "garcia", "chen", "khan", "muller", "rossi", "haddad", "tanaka", "silva", "patel"};
+
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        System.out.println("Entries: " + entries + " | order: " + order);
+        compareStrings("URLs", () -> urls(entries), order);
+        compareStrings("Usernames", () -> usernames(entries), order);
+        compareLongs(entries, order);
+    }
+
+    private static void compareStrings(String name, Supplier<String[]> keySet, int order) {
+        System.out.println("\n--- " + name + " (e.g. " + keySet.get()[0] + ") ---");
+        System.out.println(String.format("%-30s %12s", "structure", "bytes/entry"));
+
+        measure("TreeMap<String, Integer>", keySet, keys -> {
+            TreeMap<String, Integer> map = new TreeMap<>();
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], i & 127);
+            return map;
+        });
+        measure("BPlusMap<String, Integer>", keySet, keys -> {
+            BPlusMap<String, Integer> map = new BPlusMap<>(order, Comparator.naturalOrder());
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], i & 127);
+            return map;
+        });
+        measure("BytesBPlusMap<Integer>", keySet, keys -> {
+            BytesBPlusMap<Integer> map = new BytesBPlusMap<>(order);
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], i & 127);
+            for (int i = 0; i < keys.length; i += 97) {
+                if (map.get(keys[i]) == null) throw new IllegalStateException("missing key " + keys[i]);
+            }
+            return map;
+        });
+    }
+
+    private static void compareLongs(int entries, int order) {
+        System.out.println("\n--- Random long keys ---");
+        System.out.println(String.format("%-30s %12s", "structure", "bytes/entry"));
+        Supplier<long[]> keySet = () -> new Random(9).longs(entries).toArray();
+
+        measureLongs("TreeMap<Long, Integer>", keySet, keys -> {
+            TreeMap<Long, Integer> map = new TreeMap<>();
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], i & 127);
+            return map;
+        });
+        measureLongs("BPlusMap<Long, Integer>", keySet, keys -> {
+            BPlusMap<Long, Integer> map = new BPlusMap<>(order, Comparator.naturalOrder());
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], i & 127);
+            return map;
+        });
+        measureLongs("LongBPlusMap<Integer>", keySet, keys -> {
+            LongBPlusMap<Integer> map = new LongBPlusMap<>(order);
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], i & 127);
+            return map;
+        });
+    }
+
+    interface Builder<K> {
+        Object build(K keys);
+    }
+
+    private static void measure(String name, Supplier<String[]> keySet, Builder<String[]> builder) {
+        long before = usedHeap();
+        String[] keys = keySet.get();
+        int n = keys.length;
+        Object map = builder.build(keys);
+        keys = null;
+        long bytes = usedHeap() - before;
+        System.out.println(String.format("%-30s %12.1f", name, (double) bytes / n));
+        map.hashCode();
+    }
+
+    private static void measureLongs(String name, Supplier<long[]> keySet, Builder<long[]> builder) {
+        long[] keys = keySet.get();
+        int n = keys.length;
+        long before = usedHeap();
+        Object map = builder.build(keys);
+        long bytes = usedHeap() - before;
+        System.out.println(String.format("%-30s %12.1f", name, (double) bytes / n));
+        map.hashCode();
+        keys.hashCode();
+    }
+
+    // ---------- KEY SETS ----------
+    private static String[] urls(int n) {
+        Random random = new Random(1);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = "https://" + SITES[random.nextInt(SITES.length)]
+                    + "/" + SECTIONS[random.nextInt(SECTIONS.length)]
+                    + "/category-" + random.nextInt(200)
+                    + "/item-" + (100_000 + random.nextInt(9_000_000))
+                    + (random.nextInt(4) == 0 ? "?ref=homepage" : "");
+        }
+        return keys;
+    }
+
+    private static String[] usernames(int n) {
+        Random random = new Random(2);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            switch (random.nextInt(3)) {
+                case 0:
+                    keys[i] = first + "." + last + random.nextInt(100_000);
+                    break;
+                case 1:
+                    keys[i] = first + "_" + last.charAt(0) + (1950 + random.nextInt(60)) + "_" + random.nextInt(1000);
+                    break;
+                default:
+                    keys[i] = last + first + random.nextInt(1_000_000);
+            }
+        }
+        return keys;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,120 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The original List-backed B+ tree layout (boxed Integer keys, ArrayList
+ * children), kept without logging as a baseline for NodeLayoutBenchmark.
+ * Split behaviour mirrors BPlusTreeDemo.BPlusTree (splitLeafFill / splitInternalFill).
+ */
+public class ListBPlusTree {
+
+    static class Node {
+        boolean isLeaf;
+        List<Integer> keys = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        Node next; // leaf chain
+
+        Node(boolean isLeaf) {
+            this.isLeaf = isLeaf;
+        }
+    }
+
+    private final int order;
+    private Node root;
+
+    public ListBPlusTree(int order) {
+        this.order = order;
+        this.root = new Node(true);
+    }
+
+    public void insert(int key) {
+        Node splitNode = insertInternal(root, key);
+
+        if (splitNode != null) {
+            int promotedKey = splitNode.keys.get(0);
+            Node newRoot = new Node(false);
+            newRoot.keys.add(promotedKey);
+            newRoot.children.add(root);
+
+            if (!splitNode.isLeaf) {
+                splitNode.keys.remove(0);
+            }
+
+            newRoot.children.add(splitNode);
+            root = newRoot;
+        }
+    }
+
+    public boolean contains(int key) {
+        Node node = root;
+        while (!node.isLeaf) {
+            node = node.children.get(findChildIndex(node, key));
+        }
+        return node.keys.contains(key);
+    }
+
+    private Node insertInternal(Node node, int key) {
+        if (node.isLeaf) {
+            int idx = 0;
+            while (idx < node.keys.size() && key > node.keys.get(idx)) {
+                idx++;
+            }
+            node.keys.add(idx, key);
+            return node.keys.size() >= order ? splitLeafFill(node) : null;
+        }
+
+        int idx = findChildIndex(node, key);
+        Node splitNode = insertInternal(node.children.get(idx), key);
+
+        if (splitNode != null) {
+            node.keys.add(idx, splitNode.keys.get(0));
+            if (!splitNode.isLeaf) {
+                splitNode.keys.remove(0);
+            }
+            node.children.add(idx + 1, splitNode);
+        }
+
+        return node.keys.size() >= order ? splitInternalFill(node) : null;
+    }
+
+    private Node splitLeafFill(Node leaf) {
+        int lastKeyIndex = leaf.keys.size() - 1;
+        int mid = leaf.keys.get(lastKeyIndex) > leaf.keys.get(lastKeyIndex - 1)
+                ? lastKeyIndex
+                : leaf.keys.size() / 2;
+
+        Node newLeaf = new Node(true);
+        newLeaf.keys.addAll(leaf.keys.subList(mid, leaf.keys.size()));
+        leaf.keys = new ArrayList<>(leaf.keys.subList(0, mid));
+
+        newLeaf.next = leaf.next;
+        leaf.next = newLeaf;
+        return newLeaf;
+    }
+
+    private Node splitInternalFill(Node node) {
+        int last = node.keys.size() - 1;
+        int mid = node.keys.get(last) > node.keys.get(last - 1) ? last : node.keys.size() / 2;
+        int promoteKey = node.keys.get(mid);
+
+        Node right = new Node(false);
+        right.keys.addAll(node.keys.subList(mid + 1, node.keys.size()));
+        right.children.addAll(node.children.subList(mid + 1, node.children.size()));
+
+        node.keys = new ArrayList<>(node.keys.subList(0, mid));
+        node.children = new ArrayList<>(node.children.subList(0, mid + 1));
+
+        right.keys.add(0, promoteKey);
+        return right;
+    }
+
+    private int findChildIndex(Node node, int key) {
+        int idx = 0;
+        while (idx < node.keys.size() && key >= node.keys.get(idx)) {
+            idx++;
+        }
+        return idx;
+    }
+}
@@ -0,0 +1,194 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * BPlusMap specialised for primitive long keys: keys live in long[] arrays,
+ * so neither lookups nor inserts box them.
+ */
+public class LongBPlusMap<V> {
+
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    static final class Node {
+        final boolean isLeaf;
+        final long[] keys;
+        final Object[] values;  // leaves only
+        final Node[] children;  // internal nodes only
+        int keyCount;
+        Node next; // leaf chain
+
+        Node(boolean isLeaf, int order) {
+            this.isLeaf = isLeaf;
+            this.keys = new long[order];
+            this.values = isLeaf ? new Object[order] : null;
+            this.children = isLeaf ? null : new Node[order + 1];
+        }
+    }
+
+    private final int order;
+    private Node root;
+    private long size;
+
+    private long splitKey;
+    private Object previous;
+
+    public LongBPlusMap(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("order must be at least 3: " + order);
+        }
+        this.order = order;
+        this.root = new Node(true, order);
+    }
+
+    // ---------- PUT ----------
+    // Returns the value previously stored under `key`, or null.
+    public V put(long key, V value) {
+        previous = null;
+        Node right = putInternal(root, key, value);
+        if (right != null) {
+            Node newRoot = new Node(false, order);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.keyCount = 1;
+            root = newRoot;
+        }
+        @SuppressWarnings("unchecked")
+        V old = (V) previous;
+        return old;
+    }
+
+    private Node putInternal(Node node, long key, V value) {
+        if (node.isLeaf) {
+            int n = node.keyCount;
+            int idx = lowerBound(node.keys, n, key);
+            if (idx < n && node.keys[idx] == key) {
+                previous = node.values[idx];
+                node.values[idx] = value;
+                return null;
+            }
+            System.arraycopy(node.keys, idx, node.keys, idx + 1, n - idx);
+            System.arraycopy(node.values, idx, node.values, idx + 1, n - idx);
+            node.keys[idx] = key;
+            node.values[idx] = value;
+            node.keyCount = n + 1;
+            size++;
+            return node.keyCount >= order ? splitLeaf(node, idx == n) : null;
+        }
+
+        int idx = upperBound(node.keys, node.keyCount, key);
+        Node right = putInternal(node.children[idx], key, value);
+        if (right != null) {
+            int n = node.keyCount;
+            System.arraycopy(node.keys, idx, node.keys, idx + 1, n - idx);
+            System.arraycopy(node.children, idx + 1, node.children, idx + 2, n - idx);
+            node.keys[idx] = splitKey;
+            node.children[idx + 1] = right;
+            node.keyCount = n + 1;
+            if (node.keyCount >= order) {
+                return splitInternal(node, idx == n);
+            }
+        }
+        return null;
+    }
+
+    private Node splitLeaf(Node leaf, boolean appended) {
+        int n = leaf.keyCount;
+        int mid = appended ? n - 1 : n / 2;
+        Node right = new Node(true, order);
+        System.arraycopy(leaf.keys, mid, right.keys, 0, n - mid);
+        System.arraycopy(leaf.values, mid, right.values, 0, n - mid);
+        Arrays.fill(leaf.values, mid, n, null);
+        right.keyCount = n - mid;
+        leaf.keyCount = mid;
+        right.next = leaf.next;
+        leaf.next = right;
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    private Node splitInternal(Node node, boolean appended) {
+        int n = node.keyCount;
+        int mid = appended ? n - 2 : n / 2;
+        int moved = n - mid - 1;
+        Node right = new Node(false, order);
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, moved);
+        System.arraycopy(node.children, mid + 1, right.children, 0, moved + 1);
+        right.keyCount = moved;
+        splitKey = node.keys[mid];
+        Arrays.fill(node.children, mid + 1, n + 1, null);
+        node.keyCount = mid;
+        return right;
+    }
+
+    // ---------- QUERY ----------
+    public V get(long key) {
+        Node leaf = findLeaf(key);
+        int idx = lowerBound(leaf.keys, leaf.keyCount, key);
+        if (idx < leaf.keyCount && leaf.keys[idx] == key) {
+            @SuppressWarnings("unchecked")
+            V value = (V) leaf.values[idx];
+            return value;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        Node leaf = findLeaf(key);
+        int idx = lowerBound(leaf.keys, leaf.keyCount, key);
+        return idx < leaf.keyCount && leaf.keys[idx] == key;
+    }
+
+    // Calls `action` for every entry with from <= key <= to, in key order.
+    @SuppressWarnings("unchecked")
+    public void forEachInRange(long from, long to, EntryConsumer<? super V> action) {
+        Node leaf = root;
+        while (!leaf.isLeaf) {
+            leaf = leaf.children[lowerBound(leaf.keys, leaf.keyCount, from)];
+        }
+        for (int i = lowerBound(leaf.keys, leaf.keyCount, from); leaf != null; leaf = leaf.next, i = 0) {
+            for (; i < leaf.keyCount; i++) {
+                if (leaf.keys[i] > to) {
+                    return;
+                }
+                action.accept(leaf.keys[i], (V) leaf.values[i]);
+            }
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // ---------- HELPERS ----------
+    private Node findLeaf(long key) {
+        Node node = root;
+        while (!node.isLeaf) {
+            node = node.children[upperBound(node.keys, node.keyCount, key)];
+        }
+        return node;
+    }
+
+    private static int lowerBound(long[] keys, int n, long key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(long[] keys, int n, long key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
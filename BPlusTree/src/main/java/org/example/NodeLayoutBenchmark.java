@@ -0,0 +1,98 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Compares the int[]-backed BPlusTreeDemo.BPlusTree against the original
+ * List-backed layout (ListBPlusTree): retained heap per key, insert
+ * throughput and point lookup throughput.
+ *
+ * Usage: java org.example.NodeLayoutBenchmark [keyCount] [order]
+ * Run with a fixed heap (e.g. -Xms4g -Xmx4g) so the memory numbers are stable.
+ */
+public class NodeLayoutBenchmark {
+
+    public static void main(String[] args) {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        int[] keys = new int[keyCount];
+        Random random = new Random(42);
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = random.nextInt();
+        }
+        int[] probes = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            probes[i] = keys[random.nextInt(keyCount)];
+        }
+
+        System.out.println("Keys: " + keyCount + " | order: " + order);
+        System.out.println(String.format("%-8s %14s %16s %16s", "layout", "bytes/key", "insert ops/s", "lookup ops/s"));
+
+        // Warm up both code paths before measuring
+        for (int round = 0; round < 2; round++) {
+            runArray(keys, probes, order, round == 1);
+            runList(keys, probes, order, round == 1);
+        }
+    }
+
+    private static void runArray(int[] keys, int[] probes, int order, boolean print) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        BPlusTreeDemo.BPlusTree tree = new BPlusTreeDemo.BPlusTree(order, false);
+        for (int k : keys) {
+            tree.insert(k);
+        }
+        long insertNanos = System.nanoTime() - start;
+        long bytes = usedHeap() - before;
+
+        start = System.nanoTime();
+        int found = 0;
+        for (int k : probes) {
+            if (tree.contains(k)) found++;
+        }
+        long lookupNanos = System.nanoTime() - start;
+
+        if (print) report("int[]", keys.length, bytes, insertNanos, lookupNanos, found);
+    }
+
+    private static void runList(int[] keys, int[] probes, int order, boolean print) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        ListBPlusTree tree = new ListBPlusTree(order);
+        for (int k : keys) {
+            tree.insert(k);
+        }
+        long insertNanos = System.nanoTime() - start;
+        long bytes = usedHeap() - before;
+
+        start = System.nanoTime();
+        int found = 0;
+        for (int k : probes) {
+            if (tree.contains(k)) found++;
+        }
+        long lookupNanos = System.nanoTime() - start;
+
+        if (print) report("List", keys.length, bytes, insertNanos, lookupNanos, found);
+    }
+
+    private static void report(String layout, int n, long bytes, long insertNanos, long lookupNanos, int found) {
+        if (found != n) {
+            throw new IllegalStateException(layout + " tree lost keys: found " + found + " of " + n);
+        }
+        System.out.println(String.format("%-8s %14.1f %16.0f %16.0f",
+                layout,
+                (double) bytes / n,
+                n * 1e9 / insertNanos,
+                n * 1e9 / lookupNanos));
+    }
+
+    // Heap still reachable after a full collection; the tree under test is live at this point.
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,369 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent int-key B+ tree stored as fixed-size pages in a single file and
+ * accessed through a BufferPool.
+ *
+ * File layout (page size P, page ids are file offsets / P):
+ *   page 0      header: magic, page size, root page id, key count
+ *   page 1..n   nodes
+ *
+ * Node page layout:
+ *   [0]  isLeaf (byte)
+ *   [4]  keyCount (int)
+ *   [8]  next leaf page id, -1 at the end of the chain (leaves only)
+ *   [16] keys (int), followed on internal pages by child page ids (int)
+ *
+ * The fanout follows from the page size: a leaf holds (P - 16) / 4 keys and an
+ * internal page (P - 20) / 8 keys. Splits mirror splitLeafFill: appending past
+ * a node's last key keeps the left node full, anything else splits in the middle.
+ */
+public class PagedBPlusTree implements Closeable {
+
+    private static final int MAGIC = 0x42505431; // "BPT1"
+    private static final int HEADER_PAGE = 0;
+
+    private static final int IS_LEAF = 0;
+    private static final int KEY_COUNT = 4;
+    private static final int NEXT = 8;
+    private static final int KEYS = 16;
+
+    private static final int NO_SPLIT = -1;
+    private static final int DUPLICATE = -2;
+
+    private final BufferPool pool;
+    private final int leafCapacity;
+    private final int internalCapacity;
+    private final int childrenOffset;
+    private int rootPageId;
+    private long size;
+
+    // Separator produced by the most recent split (see BPlusTreeDemo.BPlusTree)
+    private int splitKey;
+    // Scratch space for a node plus the entry that overflowed it
+    private final int[] scratchKeys;
+    private final int[] scratchChildren;
+
+    private PagedBPlusTree(BufferPool pool) {
+        int pageSize = pool.pageSize();
+        this.pool = pool;
+        this.leafCapacity = (pageSize - KEYS) / 4;
+        this.internalCapacity = (pageSize - KEYS - 4) / 8;
+        this.childrenOffset = KEYS + 4 * internalCapacity;
+        this.scratchKeys = new int[leafCapacity + 1];
+        this.scratchChildren = new int[internalCapacity + 2];
+    }
+
+    // Opens the tree stored in `file`, creating an empty one if the file is new.
+    public static PagedBPlusTree open(Path file, int pageSize, int poolFrames) throws IOException {
+        if (pageSize < 256 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("page size must be a power of two >= 256: " + pageSize);
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // A file shorter than one page is never initialized over: it may be
+            // a truncated tree, or not a tree at all
+            long fileSize = channel.size();
+            if (fileSize > 0 && fileSize < pageSize) {
+                throw new IOException(file + " is truncated or not a B+ tree file");
+            }
+            BufferPool pool = new BufferPool(channel, pageSize, poolFrames);
+            PagedBPlusTree tree = new PagedBPlusTree(pool);
+
+            if (fileSize == 0) {
+                BufferPool.Frame header = pool.allocate();
+                BufferPool.Frame root = pool.allocate();
+                root.buf.put(IS_LEAF, (byte) 1);
+                root.buf.putInt(NEXT, -1);
+                tree.rootPageId = root.pageId;
+                pool.unpin(root, true);
+                pool.unpin(header, true);
+                tree.writeHeader();
+            } else {
+                BufferPool.Frame header = pool.pin(HEADER_PAGE);
+                try {
+                    ByteBuffer buf = header.buf;
+                    if (buf.getInt(0) != MAGIC) {
+                        throw new IOException(file + " is not a B+ tree file");
+                    }
+                    if (buf.getInt(4) != pageSize) {
+                        throw new IOException(file + " was written with page size " + buf.getInt(4));
+                    }
+                    tree.rootPageId = buf.getInt(8);
+                    tree.size = buf.getLong(16);
+                } finally {
+                    pool.unpin(header, false);
+                }
+            }
+            return tree;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ---------- INSERT ----------
+    // Returns false if the key is already present.
+    public boolean insert(int key) throws IOException {
+        int right = insertInto(rootPageId, key);
+        if (right == DUPLICATE) {
+            return false;
+        }
+        if (right != NO_SPLIT) {
+            BufferPool.Frame newRoot = pool.allocate();
+            ByteBuffer buf = newRoot.buf;
+            buf.putInt(KEY_COUNT, 1);
+            buf.putInt(KEYS, splitKey);
+            buf.putInt(childrenOffset, rootPageId);
+            buf.putInt(childrenOffset + 4, right);
+            rootPageId = newRoot.pageId;
+            pool.unpin(newRoot, true);
+        }
+        size++;
+        return true;
+    }
+
+    // Returns the page id of a new right sibling, NO_SPLIT, or DUPLICATE.
+    private int insertInto(int pageId, int key) throws IOException {
+        BufferPool.Frame frame = pool.pin(pageId);
+        boolean dirty = false;
+        try {
+            ByteBuffer buf = frame.buf;
+            int n = buf.getInt(KEY_COUNT);
+
+            if (buf.get(IS_LEAF) == 1) {
+                int idx = lowerBound(buf, n, key);
+                if (idx < n && buf.getInt(KEYS + 4 * idx) == key) {
+                    return DUPLICATE;
+                }
+                dirty = true;
+                if (n < leafCapacity) {
+                    shift(frame, KEYS + 4 * idx, n - idx);
+                    buf.putInt(KEYS + 4 * idx, key);
+                    buf.putInt(KEY_COUNT, n + 1);
+                    return NO_SPLIT;
+                }
+                return splitLeaf(frame, n, idx, key);
+            }
+
+            int idx = upperBound(buf, n, key);
+            int right = insertInto(buf.getInt(childrenOffset + 4 * idx), key);
+            if (right == NO_SPLIT || right == DUPLICATE) {
+                return right;
+            }
+
+            dirty = true;
+            int separator = splitKey;
+            if (n < internalCapacity) {
+                shift(frame, KEYS + 4 * idx, n - idx);
+                shift(frame, childrenOffset + 4 * (idx + 1), n - idx);
+                buf.putInt(KEYS + 4 * idx, separator);
+                buf.putInt(childrenOffset + 4 * (idx + 1), right);
+                buf.putInt(KEY_COUNT, n + 1);
+                return NO_SPLIT;
+            }
+            return splitInternal(frame, n, idx, separator, right);
+        } finally {
+            pool.unpin(frame, dirty);
+        }
+    }
+
+    private int splitLeaf(BufferPool.Frame frame, int n, int idx, int key) throws IOException {
+        ByteBuffer buf = frame.buf;
+        // Lay out the n + 1 keys including the new one
+        for (int i = 0, j = 0; i <= n; i++) {
+            scratchKeys[i] = i == idx ? key : buf.getInt(KEYS + 4 * j++);
+        }
+        int total = n + 1;
+        int mid = idx == n ? n : total / 2;
+
+        BufferPool.Frame right = pool.allocate();
+        try {
+            ByteBuffer rbuf = right.buf;
+            rbuf.put(IS_LEAF, (byte) 1);
+            for (int i = 0; i < mid; i++) {
+                buf.putInt(KEYS + 4 * i, scratchKeys[i]);
+            }
+            for (int i = mid; i < total; i++) {
+                rbuf.putInt(KEYS + 4 * (i - mid), scratchKeys[i]);
+            }
+            buf.putInt(KEY_COUNT, mid);
+            rbuf.putInt(KEY_COUNT, total - mid);
+
+            rbuf.putInt(NEXT, buf.getInt(NEXT));
+            buf.putInt(NEXT, right.pageId);
+            splitKey = scratchKeys[mid];
+            return right.pageId;
+        } finally {
+            pool.unpin(right, true);
+        }
+    }
+
+    private int splitInternal(BufferPool.Frame frame, int n, int idx, int separator, int child) throws IOException {
+        ByteBuffer buf = frame.buf;
+        for (int i = 0, j = 0; i <= n; i++) {
+            scratchKeys[i] = i == idx ? separator : buf.getInt(KEYS + 4 * j++);
+        }
+        for (int i = 0, j = 0; i <= n + 1; i++) {
+            scratchChildren[i] = i == idx + 1 ? child : buf.getInt(childrenOffset + 4 * j++);
+        }
+        int total = n + 1;
+        // Right-edge append keeps one key on the right so it has two children
+        int mid = idx == n ? total - 2 : total / 2;
+
+        BufferPool.Frame right = pool.allocate();
+        try {
+            ByteBuffer rbuf = right.buf;
+            for (int i = 0; i < mid; i++) {
+                buf.putInt(KEYS + 4 * i, scratchKeys[i]);
+            }
+            for (int i = 0; i <= mid; i++) {
+                buf.putInt(childrenOffset + 4 * i, scratchChildren[i]);
+            }
+            for (int i = mid + 1; i < total; i++) {
+                rbuf.putInt(KEYS + 4 * (i - mid - 1), scratchKeys[i]);
+            }
+            for (int i = mid + 1; i <= total; i++) {
+                rbuf.putInt(childrenOffset + 4 * (i - mid - 1), scratchChildren[i]);
+            }
+            buf.putInt(KEY_COUNT, mid);
+            rbuf.putInt(KEY_COUNT, total - mid - 1);
+
+            splitKey = scratchKeys[mid];
+            return right.pageId;
+        } finally {
+            pool.unpin(right, true);
+        }
+    }
+
+    // ---------- QUERY ----------
+    public boolean contains(int key) throws IOException {
+        int pageId = rootPageId;
+        while (true) {
+            BufferPool.Frame frame = pool.pin(pageId);
+            try {
+                ByteBuffer buf = frame.buf;
+                int n = buf.getInt(KEY_COUNT);
+                if (buf.get(IS_LEAF) == 1) {
+                    int idx = lowerBound(buf, n, key);
+                    return idx < n && buf.getInt(KEYS + 4 * idx) == key;
+                }
+                pageId = buf.getInt(childrenOffset + 4 * upperBound(buf, n, key));
+            } finally {
+                pool.unpin(frame, false);
+            }
+        }
+    }
+
+    // Number of keys in [from, to], walking the leaf chain page by page.
+    public long count(int from, int to) throws IOException {
+        if (from > to) {
+            return 0;
+        }
+        int pageId = rootPageId;
+        // Descend on the lower bound to the first leaf that can hold `from`
+        while (true) {
+            BufferPool.Frame frame = pool.pin(pageId);
+            ByteBuffer buf = frame.buf;
+            boolean leaf = buf.get(IS_LEAF) == 1;
+            int next = leaf ? pageId : buf.getInt(childrenOffset + 4 * lowerBound(buf, buf.getInt(KEY_COUNT), from));
+            pool.unpin(frame, false);
+            if (leaf) break;
+            pageId = next;
+        }
+
+        long total = 0;
+        boolean first = true;
+        while (pageId != -1) {
+            BufferPool.Frame frame = pool.pin(pageId);
+            try {
+                ByteBuffer buf = frame.buf;
+                int n = buf.getInt(KEY_COUNT);
+                int start = first ? lowerBound(buf, n, from) : 0;
+                if (n > 0 && buf.getInt(KEYS + 4 * (n - 1)) > to) {
+                    total += upperBound(buf, n, to) - start;
+                    break;
+                }
+                total += n - start;
+                pageId = buf.getInt(NEXT);
+                first = false;
+            } finally {
+                pool.unpin(frame, false);
+            }
+        }
+        return total;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int leafCapacity() {
+        return leafCapacity;
+    }
+
+    public int internalCapacity() {
+        return internalCapacity;
+    }
+
+    public BufferPool pool() {
+        return pool;
+    }
+
+    // ---------- PERSISTENCE ----------
+    // Writes every dirty page and the header, then forces the file to disk.
+    public void flush() throws IOException {
+        writeHeader();
+        pool.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeHeader();
+        pool.close();
+    }
+
+    private void writeHeader() throws IOException {
+        BufferPool.Frame header = pool.pin(HEADER_PAGE);
+        ByteBuffer buf = header.buf;
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, pool.pageSize());
+        buf.putInt(8, rootPageId);
+        buf.putLong(16, size);
+        pool.unpin(header, true);
+    }
+
+    // ---------- HELPERS ----------
+    // Moves `count` ints starting at byte `offset` one slot to the right.
+    private static void shift(BufferPool.Frame frame, int offset, int count) {
+        System.arraycopy(frame.data, offset, frame.data, offset + 4, 4 * count);
+    }
+
+    private static int lowerBound(ByteBuffer buf, int n, int key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getInt(KEYS + 4 * mid) < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(ByteBuffer buf, int n, int key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getInt(KEYS + 4 * mid) <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Builds a PagedBPlusTree on disk, reopens it, and measures random point
+ * lookups through buffer pools of different sizes: hit ratio and page reads
+ * per lookup, for 4, 8 and 16 KB pages.
+ *
+ * Usage: java org.example.PagedBPlusTreeBenchmark [keyCount] [lookups]
+ */
+public class PagedBPlusTreeBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        int[] keys = new int[keyCount];
+        Random random = new Random(42);
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+
+        for (int pageSize : new int[]{4096, 8192, 16384}) {
+            Path file = Files.createTempFile("bptree-" + pageSize + "-", ".db");
+            try {
+                run(file, pageSize, keys, lookups);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void run(Path file, int pageSize, int[] keys, int lookups) throws IOException {
+        long start = System.nanoTime();
+        long inserted = 0;
+        int pages;
+        try (PagedBPlusTree tree = PagedBPlusTree.open(file, pageSize, 1024)) {
+            for (int k : keys) {
+                if (tree.insert(k)) inserted++;
+            }
+            System.out.println(String.format("%n--- %d KB pages: leaf fanout %d, internal fanout %d ---",
+                    pageSize / 1024, tree.leafCapacity(), tree.internalCapacity() + 1));
+            System.out.println(String.format("Built %d keys in %.2fs (%d page writes)",
+                    inserted, (System.nanoTime() - start) / 1e9, tree.pool().writes()));
+            pages = tree.pool().pageCount();
+        }
+        System.out.println(String.format("File: %d pages, %.1f MB", pages, Files.size(file) / (1024.0 * 1024.0)));
+        System.out.println(String.format("%10s %10s %12s %16s %14s", "frames", "% of file", "hit ratio", "reads/lookup", "lookup us"));
+
+        Random random = new Random(7);
+        for (int frames : new int[]{16, 64, 256, 1024, pages}) {
+            if (frames > pages) {
+                continue;
+            }
+            try (PagedBPlusTree tree = PagedBPlusTree.open(file, pageSize, Math.max(8, frames))) {
+                if (tree.size() != inserted) {
+                    throw new IllegalStateException("reopened tree has " + tree.size() + " keys, expected " + inserted);
+                }
+                // Warm the pool, then measure
+                for (int i = 0; i < lookups / 4; i++) {
+                    tree.contains(keys[random.nextInt(keys.length)]);
+                }
+                tree.pool().resetStats();
+
+                long t0 = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    if (!tree.contains(keys[random.nextInt(keys.length)])) {
+                        throw new IllegalStateException("lookup missed a stored key");
+                    }
+                }
+                double micros = (System.nanoTime() - t0) / 1e3 / lookups;
+
+                System.out.println(String.format("%10d %9.1f%% %12.3f %16.3f %14.2f",
+                        frames, 100.0 * frames / pages, tree.pool().hitRatio(),
+                        (double) tree.pool().reads() / lookups, micros));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Startup cost and lookup latency of a memory-mapped BPlusTreeSnapshot versus
+ * rebuilding a BPlusTreeDemo.BPlusTree with one insert() per key.
+ *
+ * Usage: java org.example.SnapshotBenchmark [keyCount] [order] [lookups]
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+
+        Random random = new Random(42);
+        int[] keys = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = random.nextInt();
+        }
+
+        BPlusTreeDemo.BPlusTree source = new BPlusTreeDemo.BPlusTree(order, false);
+        for (int k : keys) {
+            source.insert(k);
+        }
+        Path file = Files.createTempFile("bptree-", ".snapshot");
+        try {
+            long t0 = System.nanoTime();
+            BPlusTreeSnapshot.write(source, file);
+            System.out.println(String.format("Exported %d keys in %.2fs (%.1f MB)",
+                    source.count(Integer.MIN_VALUE, Integer.MAX_VALUE),
+                    (System.nanoTime() - t0) / 1e9, Files.size(file) / (1024.0 * 1024.0)));
+            source = null;
+
+            // ---------- STARTUP ----------
+            t0 = System.nanoTime();
+            BPlusTreeDemo.BPlusTree rebuilt = new BPlusTreeDemo.BPlusTree(order, false);
+            for (int k : keys) {
+                rebuilt.insert(k);
+            }
+            long rebuildNanos = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            try (BPlusTreeSnapshot snapshot = BPlusTreeSnapshot.open(file)) {
+                boolean first = snapshot.contains(keys[0]);
+                long openNanos = System.nanoTime() - t0;
+                if (!first || snapshot.size() != rebuilt.count(Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+                    throw new IllegalStateException("snapshot does not match the source tree");
+                }
+
+                System.out.println(String.format("%n%-34s %12s", "startup", "ms"));
+                System.out.println(String.format("%-34s %12.1f", "rebuild with insert()", rebuildNanos / 1e6));
+                System.out.println(String.format("%-34s %12.3f", "open snapshot + first lookup", openNanos / 1e6));
+
+                // ---------- LOOKUPS ----------
+                int[] probes = new int[lookups];
+                for (int i = 0; i < lookups; i++) {
+                    probes[i] = (i & 1) == 0 ? keys[random.nextInt(keyCount)] : random.nextInt();
+                }
+                System.out.println(String.format("%n%-34s %12s", "lookups (50% hits)", "ns/op"));
+                for (int round = 0; round < 3; round++) {
+                    long heapNanos = timeHeap(rebuilt, probes);
+                    long mappedNanos = timeMapped(snapshot, probes);
+                    if (round == 2) {
+                        System.out.println(String.format("%-34s %12.1f", "heap BPlusTree", (double) heapNanos / lookups));
+                        System.out.println(String.format("%-34s %12.1f", "mapped snapshot", (double) mappedNanos / lookups));
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long timeHeap(BPlusTreeDemo.BPlusTree tree, int[] probes) {
+        long t0 = System.nanoTime();
+        int hits = 0;
+        for (int k : probes) {
+            if (tree.contains(k)) hits++;
+        }
+        long elapsed = System.nanoTime() - t0;
+        if (hits == 0) throw new IllegalStateException();
+        return elapsed;
+    }
+
+    private static long timeMapped(BPlusTreeSnapshot snapshot, int[] probes) {
+        long t0 = System.nanoTime();
+        int hits = 0;
+        for (int k : probes) {
+            if (snapshot.contains(k)) hits++;
+        }
+        long elapsed = System.nanoTime() - t0;
+        if (hits == 0) throw new IllegalStateException();
+        return elapsed;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example;
+
+/**
+ * Chooses where BPlusTreeDemo.BPlusTree splits an overflowing node.
+ *
+ * Each node remembers the position of its latest insert and how many inserts
+ * in a row landed right next to the one before (`run`). Sequential streams
+ * build long runs: ascending keys land just after the previous key, and
+ * descending keys just before it. Random inserts almost never do. The
+ * tracking is per node, so several interleaved ascending streams (tenants)
+ * each build their own run once their keys live in different leaves.
+ */
+public interface SplitPolicy {
+
+    // Returns how many of the node's keyCount keys stay in the left node.
+    // For an internal node the key after them is promoted. `lastInsert` is
+    // the position of the key whose insert caused the overflow. The tree
+    // clamps the result so both halves stay valid.
+    int splitPoint(boolean leaf, int keyCount, int lastInsert, int run);
+
+    // Always split in the middle.
+    SplitPolicy BALANCED = (leaf, keyCount, lastInsert, run) -> keyCount / 2;
+
+    // adaptive(2, 0.9): see below.
+    SplitPolicy ADAPTIVE = adaptive(2, 0.9);
+
+    // After `minRun` adjacent inserts, split just after the newest key.
+    // Everything before it stays left and fills up under the run, and the
+    // untouched tail moves right. If the run is at the right edge, the left
+    // node keeps `appendFill` of its capacity (0.9 gives a 90/10 split) and
+    // the slack absorbs late, out-of-order keys. Anything else splits 50/50.
+    static SplitPolicy adaptive(int minRun, double appendFill) {
+        if (appendFill <= 0 || appendFill > 1) {
+            throw new IllegalArgumentException("appendFill must be in (0, 1]: " + appendFill);
+        }
+        return (leaf, keyCount, lastInsert, run) -> {
+            if (run < minRun) {
+                return keyCount / 2;
+            }
+            if (lastInsert == keyCount - 1) {
+                return (int) Math.round(appendFill * (keyCount - 1));
+            }
+            return lastInsert + 1;
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package org.example;
+
+/**
+ * BPlusTreeListener that counts structural events, meant to be read
+ * periodically by a metrics reporter.
+ *
+ * splitFillHistogram() buckets the nodes each split leaves behind by how full
+ * they are, in tenths of the resting capacity (order - 1 keys). A healthy
+ * random workload peaks around 50%; sequential appends show up near the
+ * SplitPolicy's append fill (the left node) and its remainder (the new right node).
+ *
+ * Counters are plain fields: the tree itself is single-threaded.
+ */
+public class TreeMetrics implements BPlusTreeListener {
+
+    private final int capacity;
+
+    private long leafSplits;
+    private long internalSplits;
+    private long unevenSplits;
+    private long promotions;
+    private long borrows;
+    private long merges;
+    private int height = 1;
+    private final long[] splitFill = new long[11];
+
+    public TreeMetrics(int order) {
+        this.capacity = order - 1;
+    }
+
+    @Override
+    public void leafSplit(int leftKeys, int rightKeys, boolean uneven) {
+        leafSplits++;
+        split(leftKeys, rightKeys, uneven);
+    }
+
+    @Override
+    public void internalSplit(int leftKeys, int rightKeys, boolean uneven) {
+        internalSplits++;
+        split(leftKeys, rightKeys, uneven);
+    }
+
+    private void split(int leftKeys, int rightKeys, boolean uneven) {
+        if (uneven) {
+            unevenSplits++;
+        }
+        splitFill[bucket(leftKeys)]++;
+        splitFill[bucket(rightKeys)]++;
+    }
+
+    private int bucket(int keys) {
+        return Math.min(10, keys * 10 / capacity);
+    }
+
+    @Override
+    public void promoted(int key) {
+        promotions++;
+    }
+
+    @Override
+    public void rootGrew(int height) {
+        this.height = height;
+    }
+
+    @Override
+    public void rootShrank(int height) {
+        this.height = height;
+    }
+
+    @Override
+    public void borrowed(boolean leaf, boolean fromLeft) {
+        borrows++;
+    }
+
+    @Override
+    public void merged(boolean leaf, int keys) {
+        merges++;
+    }
+
+    // ---------- READ ----------
+    public long leafSplits() {
+        return leafSplits;
+    }
+
+    public long internalSplits() {
+        return internalSplits;
+    }
+
+    // Splits the SplitPolicy moved off the middle (sequential insert runs).
+    public long unevenSplits() {
+        return unevenSplits;
+    }
+
+    public long promotions() {
+        return promotions;
+    }
+
+    public long borrows() {
+        return borrows;
+    }
+
+    public long merges() {
+        return merges;
+    }
+
+    // Height after the last root change (1 until the root first splits).
+    public int height() {
+        return height;
+    }
+
+    // Bucket i counts split products holding [i * 10%, (i + 1) * 10%) of capacity.
+    public long[] splitFillHistogram() {
+        return splitFill.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("splits=%d leaf/%d internal (%d uneven) promotions=%d borrows=%d merges=%d height=%d",
+                leafSplits, internalSplits, unevenSplits, promotions, borrows, merges, height);
+    }
+}
@@ -0,0 +1,326 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Persistent (copy-on-write) int-key B+ tree with snapshot reads.
+ *
+ * Nodes are immutable. An insert copies the nodes on the path from the root to
+ * the target leaf (and the halves of any node it splits), links the copies to
+ * the untouched subtrees, and publishes the new root with one volatile write.
+ * Every published root is a Snapshot: a reader that holds one sees exactly
+ * the keys of that version, never blocks, and never sees a half-done split.
+ *
+ * Writers are serialized on the tree. Old versions need no bookkeeping: the
+ * nodes only they reference become unreachable once the last Snapshot handle
+ * to them is dropped, and the garbage collector frees them.
+ *
+ * Leaves have no sibling links (a link would force copying the neighbour
+ * too), so scans walk the tree with a stack. Keys are unique; no remove().
+ */
+public class VersionedBPlusTree {
+
+    static final class Node {
+        // Sized to the key count, no spare capacity, to keep copies small
+        final int[] keys;
+        final Node[] children; // null for leaves
+
+        Node(int[] keys, Node[] children) {
+            this.keys = keys;
+            this.children = children;
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    private final int order;
+    private volatile Snapshot current;
+
+    // Set by a split: the separator and the new right node
+    private int splitKey;
+    private Node splitRight;
+
+    // Write accounting, guarded by the tree's monitor
+    private long inserts;
+    private long nodesWritten;
+    private long bytesWritten;
+
+    public VersionedBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("order must be at least 3: " + order);
+        }
+        this.order = order;
+        this.current = new Snapshot(new Node(new int[0], null), 0, 0, 1);
+    }
+
+    // ---------- INSERT ----------
+    // Returns false if the key is already present (no new version is made).
+    public synchronized boolean insert(int key) {
+        Snapshot base = current;
+        Node root = insert(base.root, key);
+        if (root == null) {
+            return false;
+        }
+        int height = base.height;
+        if (splitRight != null) {
+            root = write(new Node(new int[]{splitKey}, new Node[]{root, splitRight}));
+            splitRight = null;
+            height++;
+        }
+        inserts++;
+        current = new Snapshot(root, base.size + 1, base.version + 1, height);
+        return true;
+    }
+
+    // Returns the copy that replaces `node`, or null for a duplicate. On a
+    // split the copy is the left half and splitKey/splitRight hold the rest.
+    private Node insert(Node node, int key) {
+        if (node.isLeaf()) {
+            int pos = Arrays.binarySearch(node.keys, key);
+            if (pos >= 0) {
+                return null;
+            }
+            int[] keys = insertAt(node.keys, -pos - 1, key);
+            if (keys.length < order) {
+                return write(new Node(keys, null));
+            }
+            int half = keys.length / 2;
+            splitKey = keys[half];
+            splitRight = write(new Node(Arrays.copyOfRange(keys, half, keys.length), null));
+            return write(new Node(Arrays.copyOf(keys, half), null));
+        }
+
+        int idx = childIndex(node, key);
+        Node child = insert(node.children[idx], key);
+        if (child == null) {
+            return null;
+        }
+        Node[] children = node.children.clone();
+        children[idx] = child;
+        int[] keys = node.keys;
+        if (splitRight != null) {
+            keys = insertAt(keys, idx, splitKey);
+            children = insertAt(children, idx + 1, splitRight);
+            splitRight = null;
+        }
+        if (children.length <= order) {
+            // Without a split below, the key array is shared with the old version
+            return write(new Node(keys, children), keys != node.keys);
+        }
+        // Promote the middle key; it stays in neither half
+        int mid = keys.length / 2;
+        splitKey = keys[mid];
+        splitRight = write(new Node(Arrays.copyOfRange(keys, mid + 1, keys.length),
+                Arrays.copyOfRange(children, mid + 1, children.length)));
+        return write(new Node(Arrays.copyOf(keys, mid), Arrays.copyOf(children, mid + 1)));
+    }
+
+    private Node write(Node node) {
+        return write(node, true);
+    }
+
+    // copiedKeys is false when the node reuses its predecessor's key array,
+    // which then costs nothing to write.
+    private Node write(Node node, boolean copiedKeys) {
+        nodesWritten++;
+        // Object header + key array + child array, compressed references
+        bytesWritten += 16 + (copiedKeys ? 16 + 4L * node.keys.length : 0)
+                + (node.children == null ? 0 : 16 + 4L * node.children.length);
+        return node;
+    }
+
+    // ---------- QUERY ----------
+    // The latest version. Cheap: one volatile read, nothing is copied.
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public boolean contains(int key) {
+        return current.contains(key);
+    }
+
+    public long size() {
+        return current.size;
+    }
+
+    // ---------- STATS ----------
+    public synchronized long inserts() {
+        return inserts;
+    }
+
+    public synchronized long nodesWritten() {
+        return nodesWritten;
+    }
+
+    // Bytes allocated by inserts: new nodes and the arrays they do not share with
+    // the previous version. Divided by the 4 bytes of each inserted key this is
+    // the write amplification of copy-on-write.
+    public synchronized long bytesWritten() {
+        return bytesWritten;
+    }
+
+    // ---------- SNAPSHOT ----------
+    // One immutable version of the tree. Safe to share between threads.
+    public static final class Snapshot {
+        private final Node root;
+        private final long size;
+        private final long version;
+        private final int height;
+
+        private Snapshot(Node root, long size, long version, int height) {
+            this.root = root;
+            this.size = size;
+            this.version = version;
+            this.height = height;
+        }
+
+        public boolean contains(int key) {
+            Node node = root;
+            while (!node.isLeaf()) {
+                node = node.children[childIndex(node, key)];
+            }
+            return Arrays.binarySearch(node.keys, key) >= 0;
+        }
+
+        // Number of keys in [from, to].
+        public long count(int from, int to) {
+            return from > to ? 0 : new Cursor(this, from, to).countRemaining();
+        }
+
+        // Ascending iterator over the keys in [from, to].
+        public Cursor rangeScan(int from, int to) {
+            return new Cursor(this, from, to);
+        }
+
+        public long size() {
+            return size;
+        }
+
+        // 0 for the empty tree, then +1 per successful insert.
+        public long version() {
+            return version;
+        }
+
+        public int height() {
+            return height;
+        }
+    }
+
+    // Walks one snapshot with an explicit root-to-leaf stack.
+    public static final class Cursor implements PrimitiveIterator.OfInt {
+        private final Node[] path;
+        private final int[] slot; // child index taken at each inner level
+        private final int to;
+        private Node leaf;
+        private int pos;
+
+        private Cursor(Snapshot snapshot, int from, int to) {
+            this.path = new Node[snapshot.height];
+            this.slot = new int[snapshot.height];
+            this.to = to;
+            Node node = snapshot.root;
+            int depth = 0;
+            while (!node.isLeaf()) {
+                path[depth] = node;
+                slot[depth] = childIndex(node, from);
+                node = node.children[slot[depth++]];
+            }
+            path[depth] = node;
+            leaf = node;
+            pos = lowerBound(node.keys, from);
+            skipExhaustedLeaves();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && leaf.keys[pos] <= to;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int key = leaf.keys[pos++];
+            skipExhaustedLeaves();
+            return key;
+        }
+
+        // Consumes the cursor, a whole leaf at a time.
+        long countRemaining() {
+            long total = 0;
+            while (leaf != null) {
+                int end = upperBound(leaf.keys, to);
+                total += Math.max(0, end - pos);
+                if (end < leaf.keys.length) {
+                    break;
+                }
+                leaf = nextLeaf();
+                pos = 0;
+            }
+            leaf = null;
+            return total;
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && pos >= leaf.keys.length) {
+                leaf = nextLeaf();
+                pos = 0;
+            }
+        }
+
+        // Back up to the deepest ancestor with a child to the right, then take
+        // the leftmost path below it.
+        private Node nextLeaf() {
+            int depth = path.length - 2;
+            while (depth >= 0 && slot[depth] == path[depth].children.length - 1) {
+                depth--;
+            }
+            if (depth < 0) {
+                return null;
+            }
+            Node node = path[depth].children[++slot[depth]];
+            while (!node.isLeaf()) {
+                path[++depth] = node;
+                slot[depth] = 0;
+                node = node.children[0];
+            }
+            return node;
+        }
+    }
+
+    // ---------- HELPERS ----------
+    private static int childIndex(Node node, int key) {
+        return upperBound(node.keys, key);
+    }
+
+    private static int upperBound(int[] keys, int key) {
+        int pos = Arrays.binarySearch(keys, key);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    private static int lowerBound(int[] keys, int key) {
+        int pos = Arrays.binarySearch(keys, key);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private static int[] insertAt(int[] a, int pos, int value) {
+        int[] copy = new int[a.length + 1];
+        System.arraycopy(a, 0, copy, 0, pos);
+        copy[pos] = value;
+        System.arraycopy(a, pos, copy, pos + 1, a.length - pos);
+        return copy;
+    }
+
+    private static Node[] insertAt(Node[] a, int pos, Node value) {
+        Node[] copy = new Node[a.length + 1];
+        System.arraycopy(a, 0, copy, 0, pos);
+        copy[pos] = value;
+        System.arraycopy(a, pos, copy, pos + 1, a.length - pos);
+        return copy;
+    }
+}
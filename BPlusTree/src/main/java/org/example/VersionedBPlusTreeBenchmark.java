@@ -0,0 +1,319 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Consistency check, write amplification and read latency of
+ * VersionedBPlusTree.
+ *
+ * 1. Stress: one writer inserts while readers take snapshots and scan them
+ *    end to end, twice. Each scan must be ascending, match the snapshot's
+ *    size, and give the same result the second time.
+ * 2. Write amplification: bytes of nodes copied per inserted key, and insert
+ *    throughput against the in-place BPlusTreeDemo.BPlusTree.
+ * 3. Read latency: one writer inserts flat out while reader threads mix point
+ *    lookups and ~100-key range counts. Compared against BPlusTreeDemo.BPlusTree
+ *    behind one global read/write lock and ConcurrentBPlusTree (optimistic lock
+ *    coupling).
+ *
+ * Usage: java org.example.VersionedBPlusTreeBenchmark [readers] [order] [secondsPerRun]
+ */
+public class VersionedBPlusTreeBenchmark {
+
+    private static final int PRELOAD = 1_000_000;
+    private static final int KEY_SPACE = 1 << 26;
+    // ~100 preloaded keys per scan
+    private static final int SCAN_WIDTH = KEY_SPACE / PRELOAD * 100;
+    private static final int SAMPLES = 1 << 20;
+
+    interface OrderedIntSet {
+        boolean insert(int key);
+
+        boolean contains(int key);
+
+        long count(int from, int to);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        stressTest(Math.max(2, readers), order);
+        writeAmplification(order);
+
+        System.out.println("\n--- Read latency (ns) with one writer inserting, " + readers + " reader(s), "
+                + PRELOAD + " preloaded keys ---");
+        System.out.println(String.format("%-12s %12s %8s %8s %8s %10s %8s %8s %8s %10s",
+                "", "writes/s", "get p50", "p99", "p99.9", "max", "scan p50", "p99", "p99.9", "max"));
+        latency("copy-on-write", versionedTree(order), readers, seconds);
+        latency("global lock", globalLockTree(order), readers, seconds);
+        latency("OLC", olcTree(order), readers, seconds);
+    }
+
+    // ---------- STRESS ----------
+    private static void stressTest(int readers, int order) throws InterruptedException {
+        int keys = 300_000;
+        VersionedBPlusTree tree = new VersionedBPlusTree(order);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong scans = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+
+        List<Thread> pool = new ArrayList<>();
+        pool.add(new Thread(() -> {
+            for (int i = 0; i < keys; i++) {
+                tree.insert((int) (i * 0x9E3779B1L));
+            }
+            done.set(true);
+        }));
+        for (int r = 0; r < readers; r++) {
+            pool.add(new Thread(() -> {
+                long lastVersion = -1;
+                while (!done.get()) {
+                    VersionedBPlusTree.Snapshot snapshot = tree.snapshot();
+                    if (snapshot.version() < lastVersion) {
+                        failures.incrementAndGet();
+                    }
+                    lastVersion = snapshot.version();
+                    long first = checksum(snapshot);
+                    // The writer has moved on; the snapshot must not have
+                    if (first < 0 || checksum(snapshot) != first) {
+                        failures.incrementAndGet();
+                    }
+                    scans.incrementAndGet();
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        pool.forEach(Thread::start);
+        for (Thread t : pool) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        VersionedBPlusTree.Snapshot last = tree.snapshot();
+        if (failures.get() != 0 || last.size() != keys || checksum(last) < 0) {
+            throw new IllegalStateException("Stress test failed: failures=" + failures.get()
+                    + " size=" + last.size() + " expected=" + keys);
+        }
+        System.out.println(String.format("Stress test passed: 1 writer, %d readers, %d keys, %d consistent snapshot scans in %.2fs",
+                readers, keys, scans.get(), seconds));
+    }
+
+    // Order-sensitive hash of a full scan, or -1 if the scan is out of order
+    // or does not match the snapshot's size.
+    private static long checksum(VersionedBPlusTree.Snapshot snapshot) {
+        long hash = 0;
+        long count = 0;
+        long previous = Long.MIN_VALUE;
+        for (VersionedBPlusTree.Cursor cursor = snapshot.rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE); cursor.hasNext(); ) {
+            int key = cursor.nextInt();
+            if (key <= previous) {
+                return -1;
+            }
+            previous = key;
+            hash = hash * 31 + key;
+            count++;
+        }
+        return count == snapshot.size() ? hash & Long.MAX_VALUE : -1;
+    }
+
+    // ---------- WRITE AMPLIFICATION ----------
+    private static void writeAmplification(int order) {
+        System.out.println("\n--- Write amplification, " + PRELOAD + " inserts ---");
+        System.out.println(String.format("%-12s %12s %14s %14s %16s %16s",
+                "keys", "nodes/insert", "bytes/insert", "amplification", "COW inserts/s", "in-place/s"));
+        Random random = new Random(42);
+        int[] randomKeys = new int[PRELOAD];
+        int[] sequentialKeys = new int[PRELOAD];
+        for (int i = 0; i < PRELOAD; i++) {
+            randomKeys[i] = random.nextInt();
+            sequentialKeys[i] = i;
+        }
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            amplificationRow("random", randomKeys, order, print);
+            amplificationRow("sequential", sequentialKeys, order, print);
+        }
+    }
+
+    private static void amplificationRow(String label, int[] keys, int order, boolean print) {
+        long t0 = System.nanoTime();
+        VersionedBPlusTree cow = new VersionedBPlusTree(order);
+        for (int key : keys) {
+            cow.insert(key);
+        }
+        long cowNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        BPlusTreeDemo.BPlusTree inPlace = new BPlusTreeDemo.BPlusTree(order);
+        for (int key : keys) {
+            inPlace.insert(key);
+        }
+        long inPlaceNanos = System.nanoTime() - t0;
+
+        if (print) {
+            double inserts = cow.inserts();
+            System.out.println(String.format("%-12s %12.2f %14.0f %14.0f %16.0f %16.0f", label,
+                    cow.nodesWritten() / inserts, cow.bytesWritten() / inserts, cow.bytesWritten() / (4 * inserts),
+                    keys.length / (cowNanos / 1e9), keys.length / (inPlaceNanos / 1e9)));
+        }
+    }
+
+    // ---------- LATENCY ----------
+    private static void latency(String label, OrderedIntSet set, int readers, int seconds) throws InterruptedException {
+        ThreadLocalRandom preload = ThreadLocalRandom.current();
+        for (int i = 0; i < PRELOAD; i++) {
+            set.insert(preload.nextInt(KEY_SPACE));
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong writes = new AtomicLong();
+        long[][] gets = new long[readers][];
+        long[][] scans = new long[readers][];
+        List<Thread> pool = new ArrayList<>();
+        pool.add(new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long local = 0;
+            while (!stop.get()) {
+                set.insert(random.nextInt(KEY_SPACE));
+                local++;
+            }
+            writes.set(local);
+        }));
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            pool.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // Ring buffers: the latest SAMPLES of each kind
+                long[] get = new long[SAMPLES];
+                long[] scan = new long[SAMPLES];
+                long n = 0;
+                long sink = 0;
+                while (!stop.get()) {
+                    int key = random.nextInt(KEY_SPACE);
+                    long t0 = System.nanoTime();
+                    if ((n & 1) == 0) {
+                        sink += set.contains(key) ? 1 : 0;
+                        get[(int) (n >> 1) & (SAMPLES - 1)] = System.nanoTime() - t0;
+                    } else {
+                        sink += set.count(key, key + SCAN_WIDTH);
+                        scan[(int) (n >> 1) & (SAMPLES - 1)] = System.nanoTime() - t0;
+                    }
+                    n++;
+                }
+                if (sink < 0) throw new IllegalStateException();
+                int filled = (int) Math.min(SAMPLES, n >> 1);
+                gets[reader] = Arrays.copyOf(get, filled);
+                scans[reader] = Arrays.copyOf(scan, filled);
+            }));
+        }
+
+        pool.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread t : pool) {
+            t.join();
+        }
+
+        long[] get = merge(gets);
+        long[] scan = merge(scans);
+        System.out.println(String.format("%-12s %12.0f %8d %8d %8d %10d %8d %8d %8d %10d", label,
+                writes.get() / (double) seconds,
+                percentile(get, 0.5), percentile(get, 0.99), percentile(get, 0.999), percentile(get, 1),
+                percentile(scan, 0.5), percentile(scan, 0.99), percentile(scan, 0.999), percentile(scan, 1)));
+    }
+
+    private static long[] merge(long[][] parts) {
+        long[] all = new long[Arrays.stream(parts).mapToInt(p -> p.length).sum()];
+        int at = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, at, part.length);
+            at += part.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static OrderedIntSet versionedTree(int order) {
+        VersionedBPlusTree tree = new VersionedBPlusTree(order);
+        return new OrderedIntSet() {
+            public boolean insert(int key) {
+                return tree.insert(key);
+            }
+
+            public boolean contains(int key) {
+                return tree.contains(key);
+            }
+
+            public long count(int from, int to) {
+                return tree.snapshot().count(from, to);
+            }
+        };
+    }
+
+    private static OrderedIntSet globalLockTree(int order) {
+        BPlusTreeDemo.BPlusTree tree = new BPlusTreeDemo.BPlusTree(order);
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        return new OrderedIntSet() {
+            public boolean insert(int key) {
+                lock.writeLock().lock();
+                try {
+                    return tree.insert(key);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            public boolean contains(int key) {
+                lock.readLock().lock();
+                try {
+                    return tree.contains(key);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            public long count(int from, int to) {
+                lock.readLock().lock();
+                try {
+                    return tree.count(from, to);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        };
+    }
+
+    private static OrderedIntSet olcTree(int order) {
+        ConcurrentBPlusTree tree = new ConcurrentBPlusTree(order);
+        return new OrderedIntSet() {
+            public boolean insert(int key) {
+                return tree.insert(key);
+            }
+
+            public boolean contains(int key) {
+                return tree.contains(key);
+            }
+
+            public long count(int from, int to) {
+                return tree.count(from, to);
+            }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Durability/throughput trade-off of DurableBPlusTree.
+ *
+ * 1. Commits/sec for different group-commit sizes (records per fsync).
+ * 2. Recovery time for a log of N million records, and after a checkpoint.
+ * 3. Torn-write check: garbage appended after the last block must be dropped
+ *    on recovery without losing any synced record.
+ *
+ * Usage: java org.example.WalBenchmark [recoveryRecords] [order]
+ */
+public class WalBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int recoveryRecords = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+
+        commitThroughput(order);
+        recoveryTime(recoveryRecords, order);
+        tornWrite(order);
+    }
+
+    // ---------- GROUP COMMIT ----------
+    private static void commitThroughput(int order) throws IOException {
+        System.out.println("--- Commit throughput ---");
+        System.out.println(String.format("%12s %12s %14s %10s", "sync every", "records", "commits/s", "fsyncs"));
+        for (int syncEvery : new int[]{1, 8, 64, 512, 4096, 65536}) {
+            // Per-record fsync is slow; keep each run to a comparable duration
+            int records = (int) Math.min(2_000_000L, 5_000L * syncEvery);
+            Path dir = Files.createTempDirectory("wal-bench");
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir, order, syncEvery, 0)) {
+                Random random = new Random(1);
+                long start = System.nanoTime();
+                int done = 0;
+                while (done < records) {
+                    if (tree.insert(random.nextInt())) done++;
+                }
+                tree.sync();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(String.format("%12d %12d %14.0f %10d",
+                        syncEvery, records, records / seconds, tree.log().syncs()));
+            } finally {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    // ---------- RECOVERY ----------
+    private static void recoveryTime(int records, int order) throws IOException {
+        System.out.println("\n--- Recovery (" + records + " logged records, 10% removes) ---");
+        Path dir = Files.createTempDirectory("wal-bench");
+        try {
+            long expected;
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir, order, 65536, 0)) {
+                Random random = new Random(2);
+                int[] recent = new int[1024];
+                int logged = 0;
+                while (logged < records) {
+                    if (logged % 10 == 9) {
+                        if (tree.remove(recent[random.nextInt(recent.length)])) logged++;
+                        else logged += tree.insert(random.nextInt()) ? 1 : 0;
+                    } else {
+                        int key = random.nextInt();
+                        if (tree.insert(key)) {
+                            recent[logged % recent.length] = key;
+                            logged++;
+                        }
+                    }
+                }
+                expected = tree.count(Integer.MIN_VALUE, Integer.MAX_VALUE);
+                System.out.println(String.format("Log size: %.1f MB", tree.log().sizeBytes() / (1024.0 * 1024.0)));
+            }
+
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir, order, 65536, 0)) {
+                verify(tree, expected);
+                System.out.println(String.format("Replay of %d records: %.2fs", tree.recoveredRecords(), tree.recoveryNanos() / 1e9));
+                tree.checkpoint();
+            }
+
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir, order, 65536, 0)) {
+                verify(tree, expected);
+                System.out.println(String.format("After checkpoint (%d keys, %d records to replay): %.2fs",
+                        expected, tree.recoveredRecords(), tree.recoveryNanos() / 1e9));
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    // ---------- TORN WRITE ----------
+    private static void tornWrite(int order) throws IOException {
+        Path dir = Files.createTempDirectory("wal-bench");
+        try {
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir, order, 100, 0)) {
+                for (int k = 0; k < 1000; k++) {
+                    tree.insert(k);
+                }
+            }
+            // Half a block header and some payload, as if the machine died mid-write
+            try (FileChannel log = FileChannel.open(dir.resolve("wal.log"), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                log.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 50, 1, 2, 3, 4, 1, 0, 0}));
+            }
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir, order, 100, 0)) {
+                verify(tree, 1000);
+                tree.insert(5000);
+            }
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir, order, 100, 0)) {
+                verify(tree, 1001);
+            }
+            System.out.println("\nTorn-write recovery check passed");
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void verify(DurableBPlusTree tree, long expected) {
+        long actual = tree.count(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (actual != expected) {
+            throw new IllegalStateException("recovered " + actual + " keys, expected " + expected);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of tree mutations.
+ *
+ * File layout:
+ *   header  magic (int)
+ *   blocks  [payload length (int)][CRC32C of payload (int)][payload]
+ *   payload records of [op (byte)][key (int)], 5 bytes each
+ *
+ * Records are buffered and written as one block. fsync happens once every
+ * `syncEvery` records (group commit), so syncEvery = 1 makes every append
+ * durable on return, and larger values trade a window of recent, unsynced
+ * records for throughput. replay() stops at the first short or corrupt block
+ * (a write torn by a crash) and truncates the file there.
+ */
+public class WriteAheadLog implements Closeable {
+
+    public static final byte INSERT = 1;
+    public static final byte REMOVE = 2;
+
+    private static final int MAGIC = 0x57414C31; // "WAL1"
+    private static final int RECORD_BYTES = 5;
+    private static final int BLOCK_HEADER = 8;
+    private static final int MAX_BLOCK_RECORDS = 64 * 1024;
+
+    public interface RecordHandler {
+        void apply(byte op, int key);
+    }
+
+    private final FileChannel channel;
+    private final int syncEvery;
+    private final ByteBuffer block;
+    private final CRC32C crc = new CRC32C();
+    private int buffered;
+    private int unsynced;
+
+    // Statistics
+    private long records;
+    private long syncs;
+
+    public WriteAheadLog(Path file, int syncEvery) throws IOException {
+        if (syncEvery < 1) {
+            throw new IllegalArgumentException("syncEvery must be at least 1: " + syncEvery);
+        }
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.syncEvery = syncEvery;
+        int blockRecords = Math.min(syncEvery, MAX_BLOCK_RECORDS);
+        this.block = ByteBuffer.allocate(BLOCK_HEADER + blockRecords * RECORD_BYTES);
+        block.position(BLOCK_HEADER);
+
+        // A header shorter than 4 bytes was torn by a crash while the log was
+        // being created, before any record could follow it: start it over
+        if (channel.size() < 4) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(0, MAGIC);
+            channel.write(header, 0);
+            channel.force(false);
+        }
+    }
+
+    // ---------- APPEND ----------
+    public void append(byte op, int key) throws IOException {
+        block.put(op).putInt(key);
+        buffered++;
+        unsynced++;
+        records++;
+        if (unsynced >= syncEvery) {
+            sync();
+        } else if (!block.hasRemaining()) {
+            writeBlock();
+        }
+    }
+
+    // Writes any buffered records and forces them to disk.
+    public void sync() throws IOException {
+        writeBlock();
+        if (unsynced > 0) {
+            channel.force(false);
+            syncs++;
+            unsynced = 0;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        int payload = buffered * RECORD_BYTES;
+        crc.reset();
+        crc.update(block.array(), BLOCK_HEADER, payload);
+        block.putInt(0, payload).putInt(4, (int) crc.getValue());
+        block.flip();
+        long position = channel.size();
+        while (block.hasRemaining()) {
+            position += channel.write(block, position);
+        }
+        block.clear().position(BLOCK_HEADER);
+        buffered = 0;
+    }
+
+    // ---------- RECOVERY ----------
+    // Feeds every intact record to `handler` in log order and returns how many
+    // there were. A torn tail is cut off so new blocks follow the last good one.
+    public long replay(RecordHandler handler) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        channel.read(magic, 0);
+        if (magic.getInt(0) != MAGIC) {
+            throw new IOException("not a write-ahead log");
+        }
+
+        long size = channel.size();
+        long position = 4;
+        long replayed = 0;
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER);
+        ByteBuffer payload = ByteBuffer.allocate(block.capacity());
+
+        while (position + BLOCK_HEADER <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            int checksum = header.getInt(4);
+            if (length <= 0 || length % RECORD_BYTES != 0 || position + BLOCK_HEADER + length > size) {
+                break;
+            }
+            if (payload.capacity() < length) {
+                payload = ByteBuffer.allocate(length);
+            }
+            payload.clear().limit(length);
+            readFully(payload, position + BLOCK_HEADER);
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            payload.flip();
+            while (payload.hasRemaining()) {
+                handler.apply(payload.get(), payload.getInt());
+                replayed++;
+            }
+            position += BLOCK_HEADER + length;
+        }
+
+        if (position < size) {
+            channel.truncate(position);
+            channel.force(false);
+        }
+        return replayed;
+    }
+
+    // Drops every record, e.g. once a checkpoint covers them.
+    public void reset() throws IOException {
+        block.clear().position(BLOCK_HEADER);
+        buffered = 0;
+        unsynced = 0;
+        channel.truncate(4);
+        channel.force(false);
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position);
+            if (n < 0) {
+                throw new IOException("unexpected end of log");
+            }
+            position += n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    // ---------- STATS ----------
+    public long records() {
+        return records;
+    }
+
+    public long syncs() {
+        return syncs;
+    }
+
+    public long sizeBytes() throws IOException {
+        return channel.size() + (buffered > 0 ? BLOCK_HEADER + (long) buffered * RECORD_BYTES : 0);
+    }
+}
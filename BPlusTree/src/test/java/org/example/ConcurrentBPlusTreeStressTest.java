@@ -0,0 +1,96 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writer threads insert disjoint key sets while reader threads look up keys
+ * that are known to be present already. Any miss, lost key or out-of-order
+ * leaf chain fails the test. A small order forces frequent splits while
+ * readers are descending.
+ */
+class ConcurrentBPlusTreeStressTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int PER_WRITER = 200_000;
+
+    @Test
+    void concurrentInsertsAndLookupsLoseNoKeys() throws InterruptedException {
+        stress(8);
+    }
+
+    @Test
+    void concurrentInsertsAndLookupsLoseNoKeysAtWideOrder() throws InterruptedException {
+        stress(64);
+    }
+
+    private static void stress(int order) throws InterruptedException {
+        ConcurrentBPlusTree tree = new ConcurrentBPlusTree(order);
+        // Highest index each writer has finished inserting, for readers to probe below
+        AtomicLong[] progress = new AtomicLong[WRITERS];
+        for (int w = 0; w < WRITERS; w++) {
+            progress[w] = new AtomicLong(-1);
+        }
+        AtomicLong failedInserts = new AtomicLong();
+        AtomicLong misses = new AtomicLong();
+        AtomicLong probes = new AtomicLong();
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+
+        List<Thread> pool = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            pool.add(new Thread(() -> {
+                // Writer w owns keys congruent to w mod WRITERS, inserted in scrambled order
+                for (int i = 0; i < PER_WRITER; i++) {
+                    if (!tree.insert(key(writer, i))) {
+                        failedInserts.incrementAndGet();
+                    }
+                    progress[writer].set(i);
+                }
+                writersDone.countDown();
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            pool.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (writersDone.getCount() > 0) {
+                    int writer = random.nextInt(WRITERS);
+                    long done = progress[writer].get();
+                    if (done < 0) continue;
+                    probes.incrementAndGet();
+                    if (!tree.contains(key(writer, (int) random.nextLong(done + 1)))) {
+                        misses.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        pool.forEach(Thread::start);
+        for (Thread t : pool) {
+            t.join();
+        }
+        assertEquals(0, failedInserts.get(), "inserts of new keys reported as duplicates");
+        assertEquals(0, misses.get(), "misses in " + probes.get() + " concurrent probes");
+
+        for (int w = 0; w < WRITERS; w++) {
+            for (int i = 0; i < PER_WRITER; i++) {
+                assertTrue(tree.contains(key(w, i)), "lost key " + key(w, i));
+            }
+        }
+        // count() walks the leaf chain, so a broken or out-of-order chain shows up here
+        assertEquals((long) WRITERS * PER_WRITER, tree.count(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    private static int key(int writer, int i) {
+        int scrambled = (int) ((i * 0x9E3779B1L) & 0x7FFFFFFF) % 200_000_000;
+        return scrambled * WRITERS + writer;
+    }
+}
@@ -0,0 +1,214 @@
+package org.anay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measured false positive rate of each filter against the fpp it was sized
+ * for, with a 95% confidence interval, over FilterVariant x KeySets x
+ * capacity x fpp. Each filter is filled to capacity, checked for false
+ * negatives, then probed with keys that were never added.
+ *
+ * The number of probes grows as the fpp shrinks, to expect about 400 false
+ * positives (at least 1M, at most 20M probes), so the interval is roughly
+ * +-10% of the target or better. A small filter's rate also depends on
+ * which keys it happens to hold, so below 5M keys the probes are split over
+ * up to TRIALS filters, each filled with its own keys, and the interval is
+ * the Student t interval of the per-filter rates; a single filter gets the
+ * Wilson score interval, which stays honest for small counts. A row is
+ * flagged OVER when even the low end of the interval is above the target,
+ * i.e. the filter is measurably worse than it was sized for. BLOCKED trades
+ * some accuracy for speed (see FalsePositiveRateCheck), so its rows are
+ * flagged but not counted.
+ *
+ * add/hit/miss ns are single-pass timings next to the accuracy numbers;
+ * FilterBenchmark measures them properly. Configurations whose filter would
+ * not fit in the heap are skipped.
+ *
+ * Options, all optional, as name=value: variants, keys, capacities, fpps
+ * (comma-separated lists) and probes (a fixed probe count). The defaults
+ * sweep everything, capacities 1K-100M and fpps 10%-0.01%, which takes
+ * hours; narrow it for a quick run.
+ *
+ * gradle accuracy -PaccuracyArgs="variants=SIMPLE,SCALABLE capacities=1000,1000000,100000000"
+ */
+public class FilterAccuracyReport {
+
+    private static final double Z95 = 1.959964;
+    private static final int CHUNK = 1 << 16;
+    private static final int MIN_PROBES = 1_000_000;
+    private static final int MAX_PROBES = 20_000_000;
+    private static final int EXPECTED_FALSE_POSITIVES = 400;
+    private static final int FALSE_NEGATIVE_SAMPLE = 1_000_000;
+    private static final long KEYS_PER_TRIAL_SET = 10_000_000;
+    private static final int TRIALS = 30;
+    // 97.5% quantile of Student's t with 1..TRIALS - 1 degrees of freedom
+    private static final double[] T975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045};
+
+    public static void main(String[] args) {
+        List<FilterVariant> variants = new ArrayList<>(Arrays.asList(FilterVariant.values()));
+        List<KeySets> keySets = new ArrayList<>(Arrays.asList(KeySets.values()));
+        int[] capacities = {1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+        double[] fpps = {0.1, 0.01, 0.001, 0.0001};
+        int probes = 0;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            String[] values = option.length == 2 ? option[1].split(",") : new String[0];
+            switch (option[0]) {
+                case "variants":
+                    variants.clear();
+                    for (String v : values) variants.add(FilterVariant.valueOf(v));
+                    break;
+                case "keys":
+                    keySets.clear();
+                    for (String v : values) keySets.add(KeySets.valueOf(v));
+                    break;
+                case "capacities":
+                    capacities = Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "fpps":
+                    fpps = Arrays.stream(values).mapToDouble(Double::parseDouble).toArray();
+                    break;
+                case "probes":
+                    probes = Integer.parseInt(values[0]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + arg
+                            + "; expected variants=, keys=, capacities=, fpps= or probes=");
+            }
+        }
+
+        System.out.println(String.format("%-16s %-12s %10s %8s %9s %8s %8s %8s %16s %10s %21s %7s %s",
+                "variant", "keys", "capacity", "fpp", "bits/key", "add ns", "hit ns", "miss ns",
+                "trials x probes", "measured", "95% interval", "ratio", ""));
+        int over = 0;
+        int rows = 0;
+        for (FilterVariant variant : variants) {
+            for (KeySets keys : keySets) {
+                for (int capacity : capacities) {
+                    for (double fpp : fpps) {
+                        int n = probes > 0 ? probes
+                                : (int) Math.min(MAX_PROBES, Math.max(MIN_PROBES, Math.ceil(EXPECTED_FALSE_POSITIVES / fpp)));
+                        Boolean ok = measure(variant, keys, capacity, fpp, n);
+                        if (ok != null) {
+                            rows++;
+                            if (!ok && variant != FilterVariant.BLOCKED) over++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println(String.format("%d configurations measured, %d measurably above their target fpp", rows, over));
+    }
+
+    // Returns whether the target fpp is within reach of the interval, or
+    // null if the configuration was skipped.
+    private static Boolean measure(FilterVariant variant, KeySets keys, int capacity, double fpp, int probes) {
+        long needed = variant.estimatedBytes(capacity, fpp);
+        if (needed > Runtime.getRuntime().maxMemory() * 0.6) {
+            System.out.println(String.format("%-16s %-12s %10d %8s skipped: needs about %d MB",
+                    variant, keys, capacity, fpp, needed >> 20));
+            return null;
+        }
+
+        int trials = (int) Math.max(1, Math.min(TRIALS, KEYS_PER_TRIAL_SET / capacity));
+        int probesPerTrial = Math.max(1, probes / trials);
+        int checks = Math.max(1, Math.min(capacity, FALSE_NEGATIVE_SAMPLE / trials));
+        double[] rates = new double[trials];
+        String[] chunk = new String[CHUNK];
+        long falsePositives = 0;
+        long addNanos = 0;
+        long hitNanos = 0;
+        long missNanos = 0;
+        long bits = 0;
+        for (int trial = 0; trial < trials; trial++) {
+            // Each trial adds and probes its own range of keys
+            long firstAdded = (long) trial * capacity;
+            long firstAbsent = (long) trial * probesPerTrial;
+            BloomFilter filter = variant.create(capacity, fpp);
+            for (int from = 0; from < capacity; from += CHUNK) {
+                int count = Math.min(CHUNK, capacity - from);
+                for (int i = 0; i < count; i++) {
+                    chunk[i] = keys.added(firstAdded + from + i);
+                }
+                long t0 = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    filter.add(chunk[i]);
+                }
+                addNanos += System.nanoTime() - t0;
+            }
+            bits = filter.bitSize();
+
+            // Every added key for small filters, a random sample for large ones
+            SplittableRandom random = new SplittableRandom(capacity + trial);
+            for (int from = 0; from < checks; from += CHUNK) {
+                int count = Math.min(CHUNK, checks - from);
+                for (int i = 0; i < count; i++) {
+                    chunk[i] = keys.added(firstAdded + (checks == capacity ? from + i : random.nextInt(capacity)));
+                }
+                long t0 = System.nanoTime();
+                int hits = 0;
+                for (int i = 0; i < count; i++) {
+                    if (filter.mightContain(chunk[i])) hits++;
+                }
+                hitNanos += System.nanoTime() - t0;
+                if (hits != count) {
+                    throw new IllegalStateException(variant + " " + keys + " " + capacity + " " + fpp
+                            + ": " + (count - hits) + " false negatives");
+                }
+            }
+
+            long trialFalsePositives = 0;
+            for (int from = 0; from < probesPerTrial; from += CHUNK) {
+                int count = Math.min(CHUNK, probesPerTrial - from);
+                for (int i = 0; i < count; i++) {
+                    chunk[i] = keys.absent(firstAbsent + from + i);
+                }
+                long t0 = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    if (filter.mightContain(chunk[i])) trialFalsePositives++;
+                }
+                missNanos += System.nanoTime() - t0;
+            }
+            rates[trial] = (double) trialFalsePositives / probesPerTrial;
+            falsePositives += trialFalsePositives;
+        }
+
+        long totalProbes = (long) probesPerTrial * trials;
+        double measured = (double) falsePositives / totalProbes;
+        double[] interval = trials == 1 ? wilson(falsePositives, totalProbes) : studentT(rates);
+        boolean ok = interval[0] <= fpp;
+        System.out.println(String.format("%-16s %-12s %10d %8s %9.2f %8.1f %8.1f %8.1f %6dx%-9d %10.6f [%8.6f, %8.6f] %7.3f %s",
+                variant, keys, capacity, fpp, (double) bits / capacity,
+                (double) addNanos / ((long) capacity * trials), (double) hitNanos / ((long) checks * trials),
+                (double) missNanos / totalProbes, trials, probesPerTrial, measured, interval[0], interval[1],
+                measured / fpp, ok ? "" : "OVER"));
+        return ok;
+    }
+
+    // 95% Student t interval for the mean of `rates`
+    static double[] studentT(double[] rates) {
+        double mean = Arrays.stream(rates).average().orElse(0);
+        double squares = 0;
+        for (double rate : rates) {
+            squares += (rate - mean) * (rate - mean);
+        }
+        double half = T975[rates.length - 2] * Math.sqrt(squares / (rates.length - 1) / rates.length);
+        return new double[]{Math.max(0, mean - half), Math.min(1, mean + half)};
+    }
+
+    // 95% Wilson score interval for `successes` out of `trials`
+    static double[] wilson(long successes, long trials) {
+        double p = (double) successes / trials;
+        double z2 = Z95 * Z95;
+        double denominator = 1 + z2 / trials;
+        double center = (p + z2 / (2 * trials)) / denominator;
+        double half = Z95 * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denominator;
+        return new double[]{Math.max(0, center - half), Math.min(1, center + half)};
+    }
+}
@@ -0,0 +1,109 @@
+package org.anay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ns/op of add() and mightContain() for every FilterVariant, key set,
+ * capacity and fpp. The lookup filters hold `capacity` keys; lookups cycle
+ * through LOOKUP_KEYS keys drawn at random from the added ones (present) or
+ * from the absent ones (absent).
+ *
+ * add() fills a fresh filter with up to min(capacity, ADD_KEYS) distinct
+ * keys, then starts another, so its score includes allocating a filter
+ * once per that many adds, and cuckoo filters are measured below full load.
+ *
+ * Accuracy (measured fpp, bits/key) is FilterAccuracyReport's job.
+ *
+ * gradle jmh -PjmhArgs="FilterBenchmark -p variant=SIMPLE,SCALABLE -p capacity=100000000 -p fpp=0.01"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Thread)
+public class FilterBenchmark {
+
+    static final int LOOKUP_KEYS = 1 << 16;
+    static final int ADD_KEYS = 1 << 20;
+
+    @Param({"SIMPLE", "BLOCKED", "CONCURRENT", "COUNTING", "CUCKOO", "SCALABLE", "SCALABLE_CUCKOO"})
+    public FilterVariant variant;
+
+    @Param({"RANDOM", "SEQUENTIAL", "ADVERSARIAL"})
+    public KeySets keys;
+
+    @Param({"1000", "1000000", "10000000"})
+    public int capacity;
+
+    @Param({"0.1", "0.01", "0.001", "0.0001"})
+    public double fpp;
+
+    private BloomFilter filter;
+    private String[] present;
+    private String[] absent;
+    private int next;
+
+    private String[] addKeys;
+    private BloomFilter fresh;
+    private int added;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = variant.create(capacity, fpp);
+        for (int i = 0; i < capacity; i++) {
+            filter.add(keys.added(i));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        present = new String[LOOKUP_KEYS];
+        absent = new String[LOOKUP_KEYS];
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+            present[i] = keys.added(random.nextInt(capacity));
+            absent[i] = keys.absent(random.nextInt(Integer.MAX_VALUE));
+        }
+        addKeys = new String[Math.min(capacity, ADD_KEYS)];
+        for (int i = 0; i < addKeys.length; i++) {
+            addKeys[i] = keys.added(i);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void freshFilter() {
+        fresh = variant.create(capacity, fpp);
+        added = 0;
+    }
+
+    @Benchmark
+    public boolean mightContainPresent() {
+        return filter.mightContain(present[next++ & (LOOKUP_KEYS - 1)]);
+    }
+
+    @Benchmark
+    public boolean mightContainAbsent() {
+        return filter.mightContain(absent[next++ & (LOOKUP_KEYS - 1)]);
+    }
+
+    @Benchmark
+    public BloomFilter add() {
+        if (added == addKeys.length || fresh.isFull()) {
+            fresh = variant.create(capacity, fpp);
+            added = 0;
+        }
+        fresh.add(addKeys[added++]);
+        return fresh;
+    }
+}
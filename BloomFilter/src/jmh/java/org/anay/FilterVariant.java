@@ -0,0 +1,38 @@
+package org.anay;
+
+import java.util.function.BiFunction;
+
+/**
+ * Every filter the benchmarks know, built from (capacity, fpp). A new
+ * variant only needs a constant here to be covered by FilterBenchmark and
+ * FilterAccuracyReport.
+ *
+ * The scalable variants start at capacity / 1000 and grow to capacity, so
+ * they are measured with the layers a growing table would have.
+ */
+public enum FilterVariant {
+    SIMPLE(SimpleBloomFilter::new, 1),
+    BLOCKED(BlockedBloomFilter::new, 1),
+    CONCURRENT(ConcurrentBloomFilter::new, 1),
+    COUNTING(CountingBloomFilter::new, 4),
+    CUCKOO(CuckooFilter::new, 1.2),
+    SCALABLE((capacity, fpp) -> new ScalableBloomFilter(Math.max(1, capacity / 1000), fpp), 2),
+    SCALABLE_CUCKOO((capacity, fpp) -> ScalableBloomFilter.cuckoo(Math.max(1, capacity / 1000), fpp), 2);
+
+    private final BiFunction<Integer, Double, BloomFilter> factory;
+    // Memory relative to SimpleBloomFilter, to skip what won't fit in the heap
+    private final double memoryFactor;
+
+    FilterVariant(BiFunction<Integer, Double, BloomFilter> factory, double memoryFactor) {
+        this.factory = factory;
+        this.memoryFactor = memoryFactor;
+    }
+
+    public BloomFilter create(int capacity, double fpp) {
+        return factory.apply(capacity, fpp);
+    }
+
+    public long estimatedBytes(long capacity, double fpp) {
+        return (long) (capacity * -Math.log(fpp) / Math.pow(Math.log(2), 2) / 8 * memoryFactor);
+    }
+}
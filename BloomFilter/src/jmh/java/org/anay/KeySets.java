@@ -0,0 +1,46 @@
+package org.anay;
+
+/**
+ * Keys for the filter benchmarks. Key i is computed from i, so capacities up
+ * to 100M need no key arrays. absent(i) is never equal to any added(j).
+ *
+ * RANDOM       random base-36 strings of up to 13 characters; absent keys
+ *              start with '!', which added keys never contain
+ * SEQUENTIAL   "user_<i>" added and "non_existent_user_<i>" absent, the keys
+ *              Main and printStats use: one shared prefix, counting suffix
+ * ADVERSARIAL  a 48-character shared prefix, then "Aa<i>" added and "BB<i>"
+ *              absent. Each absent key has the same String.hashCode() as an
+ *              added one, so a filter that hashes through hashCode() answers
+ *              true for all of them; the long prefix tests that the hash
+ *              mixes every block.
+ */
+public enum KeySets {
+    RANDOM,
+    SEQUENTIAL,
+    ADVERSARIAL;
+
+    private static final String PREFIX = "tenant-0042/region-eu-west-1/users/by-name/0000/";
+
+    public String added(long i) {
+        switch (this) {
+            case RANDOM:
+                // fmix64 is a bijection, so distinct i give distinct keys
+                return Long.toString(Murmur3.fmix64(i + 1) >>> 1, 36);
+            case SEQUENTIAL:
+                return "user_" + i;
+            default:
+                return PREFIX + "Aa" + i;
+        }
+    }
+
+    public String absent(long i) {
+        switch (this) {
+            case RANDOM:
+                return "!" + Long.toString(Murmur3.fmix64(~i) >>> 1, 36);
+            case SEQUENTIAL:
+                return "non_existent_user_" + i;
+            default:
+                return PREFIX + "BB" + i;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.anay;
+
+// Bloom filter that keeps all k bits of a string inside one 512-bit block
+// (64 bytes, the size of a cache line). The hash picks the block, then the
+// k bits within it, so add and mightContain touch one block instead of k
+// scattered words. The price is a higher false positive rate than
+// SimpleBloomFilter with the same number of bits, because blocks fill
+// unevenly: about the same at fpp 10%, but 2.5-3x at 0.01%, where k is
+// large enough for a crowded block to matter.
+public class BlockedBloomFilter implements BloomFilter {
+
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_WORDS = BLOCK_BITS / Long.SIZE;
+    private static final int BLOCK_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(BLOCK_BITS);
+
+    private final int capacity;
+    private final long[] words;
+    private final int blockCount;
+    private final int numberOfHashFunctions;
+    private int insertedCount = 0;
+
+    public BlockedBloomFilter(int capacity, double fpp) {
+        this.capacity = capacity;
+        // Same m and k as SimpleBloomFilter, m rounded up to whole blocks
+        this.numberOfHashFunctions = SimpleBloomFilter.optimalHashFunctions(fpp);
+        long bitSetSize = SimpleBloomFilter.optimalBitSize(capacity, fpp, numberOfHashFunctions);
+        this.blockCount = (int) Math.max(1, (bitSetSize + BLOCK_BITS - 1) / BLOCK_BITS);
+        this.words = new long[blockCount * BLOCK_WORDS];
+    }
+
+    @Override
+    public void addHash(long h1, long h2) {
+        int block = block(h1);
+        // The bits inside the block come from h2, split in two 32-bit halves,
+        // and the low half of h1, as in SimpleBloomFilter.probe
+        int base = (int) h2;
+        int step = (int) (h2 >>> 32) | 1;
+        int curve = (int) h1;
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int bit = (base + i * step + (i * (i - 1) >> 1) * curve) >>> BLOCK_SHIFT;
+            words[block + (bit >>> 6)] |= 1L << bit;
+        }
+        insertedCount++;
+    }
+
+    @Override
+    public boolean mightContainHash(long h1, long h2) {
+        int block = block(h1);
+        int base = (int) h2;
+        int step = (int) (h2 >>> 32) | 1;
+        int curve = (int) h1;
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int bit = (base + i * step + (i * (i - 1) >> 1) * curve) >>> BLOCK_SHIFT;
+            if ((words[block + (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isFull() {
+        return insertedCount >= capacity;
+    }
+
+    @Override
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    @Override
+    public long bitSize() {
+        return (long) words.length * Long.SIZE;
+    }
+
+    // Index of the block's first word. The high 32 bits of h1, scaled to
+    // [0, blockCount) with a multiply and shift instead of %.
+    private int block(long h1) {
+        return (int) (((h1 >>> 32) * blockCount) >>> 32) * BLOCK_WORDS;
+    }
+}
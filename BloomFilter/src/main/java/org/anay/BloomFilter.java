@@ -0,0 +1,147 @@
+package org.anay;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+// Approximate set of strings: mightContain() is always true for an added
+// string, and true for a string that was never added with roughly the
+// false positive probability (fpp) the filter was sized for.
+public interface BloomFilter {
+
+    default void add(String data) {
+        long[] hash = new long[2];
+        Murmur3.hash128(data, hash);
+        addHash(hash[0], hash[1]);
+    }
+
+    default boolean mightContain(String data) {
+        long[] hash = new long[2];
+        Murmur3.hash128(data, hash);
+        return mightContainHash(hash[0], hash[1]);
+    }
+
+    // Keys as bytes, e.g. straight from a network buffer, without building a
+    // String. A string and its UTF-8 bytes are the same key.
+    default void add(byte[] data, int offset, int length) {
+        long[] hash = new long[2];
+        Murmur3.hash128(data, offset, length, Murmur3.SEED, hash);
+        addHash(hash[0], hash[1]);
+    }
+
+    default boolean mightContain(byte[] data, int offset, int length) {
+        long[] hash = new long[2];
+        Murmur3.hash128(data, offset, length, Murmur3.SEED, hash);
+        return mightContainHash(hash[0], hash[1]);
+    }
+
+    // The bytes between position and limit; the buffer is left as it was.
+    default void add(ByteBuffer data) {
+        long[] hash = new long[2];
+        Murmur3.hash128(data, data.position(), data.remaining(), Murmur3.SEED, hash);
+        addHash(hash[0], hash[1]);
+    }
+
+    default boolean mightContain(ByteBuffer data) {
+        long[] hash = new long[2];
+        Murmur3.hash128(data, data.position(), data.remaining(), Murmur3.SEED, hash);
+        return mightContainHash(hash[0], hash[1]);
+    }
+
+    // A long key is the same key as its 8 little-endian bytes.
+    default void add(long key) {
+        long[] hash = new long[2];
+        Murmur3.hash128(key, Murmur3.SEED, hash);
+        addHash(hash[0], hash[1]);
+    }
+
+    default boolean mightContain(long key) {
+        long[] hash = new long[2];
+        Murmur3.hash128(key, Murmur3.SEED, hash);
+        return mightContainHash(hash[0], hash[1]);
+    }
+
+    // Batches hash every key first and then probe the filter, so the reads
+    // of the keys and the reads of the filter are not interleaved.
+    default void addAll(String[] keys) {
+        long[] h1 = new long[keys.length];
+        long[] h2 = new long[keys.length];
+        long[] hash = new long[2];
+        for (int i = 0; i < keys.length; i++) {
+            Murmur3.hash128(keys[i], hash);
+            h1[i] = hash[0];
+            h2[i] = hash[1];
+        }
+        addHashes(h1, h2, keys.length);
+    }
+
+    default void addAll(long[] keys) {
+        long[] h1 = new long[keys.length];
+        long[] h2 = new long[keys.length];
+        long[] hash = new long[2];
+        for (int i = 0; i < keys.length; i++) {
+            Murmur3.hash128(keys[i], Murmur3.SEED, hash);
+            h1[i] = hash[0];
+            h2[i] = hash[1];
+        }
+        addHashes(h1, h2, keys.length);
+    }
+
+    // Sets bit i of results if keys[i] might be present and clears it if not.
+    default void mightContainAll(String[] keys, BitSet results) {
+        long[] h1 = new long[keys.length];
+        long[] h2 = new long[keys.length];
+        long[] hash = new long[2];
+        for (int i = 0; i < keys.length; i++) {
+            Murmur3.hash128(keys[i], hash);
+            h1[i] = hash[0];
+            h2[i] = hash[1];
+        }
+        results.clear(0, keys.length);
+        mightContainHashes(h1, h2, keys.length, results);
+    }
+
+    default void mightContainAll(long[] keys, BitSet results) {
+        long[] h1 = new long[keys.length];
+        long[] h2 = new long[keys.length];
+        long[] hash = new long[2];
+        for (int i = 0; i < keys.length; i++) {
+            Murmur3.hash128(keys[i], Murmur3.SEED, hash);
+            h1[i] = hash[0];
+            h2[i] = hash[1];
+        }
+        results.clear(0, keys.length);
+        mightContainHashes(h1, h2, keys.length, results);
+    }
+
+    // add/mightContain for a string whose Murmur3.hash128 is (h1, h2), so a
+    // caller can hash once and probe several filters.
+    void addHash(long h1, long h2);
+
+    boolean mightContainHash(long h1, long h2);
+
+    default void addHashes(long[] h1, long[] h2, int count) {
+        for (int i = 0; i < count; i++) {
+            addHash(h1[i], h2[i]);
+        }
+    }
+
+    // Sets bit i of results for each i < count that might be present. Keys
+    // whose bit is already set are skipped, so several filters can fill in
+    // the same results.
+    default void mightContainHashes(long[] h1, long[] h2, int count, BitSet results) {
+        for (int i = 0; i < count; i++) {
+            if (!results.get(i) && mightContainHash(h1[i], h2[i])) {
+                results.set(i);
+            }
+        }
+    }
+
+    // True once as many strings were added as the filter was sized for;
+    // past that the false positive rate climbs above fpp.
+    boolean isFull();
+
+    int getInsertedCount();
+
+    // Bits of filter storage, for comparing variants at equal memory.
+    long bitSize();
+}
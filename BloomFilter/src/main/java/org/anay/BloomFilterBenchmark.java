@@ -0,0 +1,81 @@
+package org.anay;
+
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * SimpleBloomFilter against BlockedBloomFilter at the same capacity and fpp,
+ * which gives both the same number of bits (the blocked one rounds up to
+ * whole 512-bit blocks). Reports add and lookup ns/op and the measured false
+ * positive rate over strings that were never added.
+ *
+ * Keys are "user_<n>"; probes for absent keys are random 64-bit numbers in
+ * base 36, so they share no prefix with each other or with the keys.
+ *
+ * Usage: java org.anay.BloomFilterBenchmark [capacity] [fpp] [lookups]
+ */
+public class BloomFilterBenchmark {
+
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        double fpp = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+
+        SplittableRandom random = new SplittableRandom(42);
+        String[] keys = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = "user_" + i;
+        }
+        String[] present = new String[lookups];
+        String[] absent = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            present[i] = keys[random.nextInt(capacity)];
+            absent[i] = "!" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        }
+
+        System.out.println(String.format("%d keys, fpp %.4f, %d lookups each", capacity, fpp, lookups));
+        System.out.println(String.format("%-10s %10s %10s %12s %12s %12s",
+                "filter", "bits/key", "add ns", "hit ns", "miss ns", "measured fpp"));
+        for (int round = 0; round < 3; round++) {
+            boolean print = round == 2;
+            run("simple", SimpleBloomFilter::new, keys, present, absent, fpp, print);
+            run("blocked", BlockedBloomFilter::new, keys, present, absent, fpp, print);
+        }
+    }
+
+    private static void run(String label, BiFunction<Integer, Double, BloomFilter> factory,
+                            String[] keys, String[] present, String[] absent, double fpp, boolean print) {
+        BloomFilter filter = factory.apply(keys.length, fpp);
+        long t0 = System.nanoTime();
+        for (String key : keys) {
+            filter.add(key);
+        }
+        long addNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        int hits = 0;
+        for (String key : present) {
+            if (filter.mightContain(key)) hits++;
+        }
+        long hitNanos = System.nanoTime() - t0;
+        if (hits != present.length) {
+            throw new IllegalStateException(label + ": false negative");
+        }
+
+        t0 = System.nanoTime();
+        int falsePositives = 0;
+        for (String key : absent) {
+            if (filter.mightContain(key)) falsePositives++;
+        }
+        long missNanos = System.nanoTime() - t0;
+
+        if (print) {
+            System.out.println(String.format("%-10s %10.2f %10.1f %12.1f %12.1f %12.5f", label,
+                    (double) filter.bitSize() / keys.length,
+                    (double) addNanos / keys.length,
+                    (double) hitNanos / present.length,
+                    (double) missNanos / absent.length,
+                    (double) falsePositives / absent.length));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.anay;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Read-through lookup in front of a slow store (a database, a remote
+// service), with a Bloom filter of every key the store holds in front of it:
+//
+//   1. a key the filter has never seen is answered null without a store call,
+//   2. a key in the positive cache is answered from memory,
+//   3. anything else goes to the store. Concurrent get()s of the same key
+//      share one store call (single-flight) instead of each making their own.
+//
+// The store function returns null for a key it does not hold. Only found
+// values are cached, in an LRU of at most cacheSize entries (0 for none);
+// absent keys that get past the filter are its false positives and are left
+// to it rather than cached.
+//
+// Keys written to the store later must be passed to put(), or the filter
+// keeps rejecting them. Safe to share between threads if the filter is:
+// ScalableBloomFilter.concurrent() or ConcurrentBloomFilter when put() runs
+// alongside get(), any filter when the key set is fixed.
+public class BloomFilterCache<V> {
+
+    private final BloomFilter filter;
+    private final Function<String, V> store;
+    private final Map<String, V> cache;
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder filterRejected = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder storeMisses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public BloomFilterCache(BloomFilter filter, Function<String, V> store, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must not be negative: " + cacheSize);
+        }
+        this.filter = filter;
+        this.store = store;
+        this.cache = cacheSize == 0 ? null : new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // The store's value for key, or null if it has none. An exception thrown
+    // by the store reaches every caller that was waiting on the same call.
+    public V get(String key) {
+        if (!filter.mightContain(key)) {
+            filterRejected.increment();
+            return null;
+        }
+        V cached = cached(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        try {
+            // Another caller may have cached it between our lookup and putIfAbsent
+            V value = cached(key);
+            if (value != null) {
+                cacheHits.increment();
+                call.complete(value);
+                return value;
+            }
+            value = store.apply(key);
+            if (value == null) {
+                storeMisses.increment();
+            } else {
+                storeHits.increment();
+                cacheIfCurrent(key, call, value);
+            }
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // After the value is cached, so a get() arriving now finds it
+            // there rather than starting a second store call
+            inFlight.remove(key, call);
+        }
+    }
+
+    // Call after writing key to the store: adds it to the filter, and to the
+    // cache so the next get() doesn't have to read it back. A store call for
+    // key that is still running may have read the old value; it is detached,
+    // so it neither caches that value nor serves later get()s.
+    public void put(String key, V value) {
+        filter.add(key);
+        if (cache == null) {
+            inFlight.remove(key);
+            return;
+        }
+        synchronized (cache) {
+            inFlight.remove(key);
+            if (value != null) {
+                cache.put(key, value);
+            } else {
+                cache.remove(key);
+            }
+        }
+    }
+
+    // Call after deleting key from the store. The key stays in the filter
+    // (unless it supports remove), so later get()s of it reach the store.
+    // A running store call for key is detached, as in put().
+    public void invalidate(String key) {
+        if (cache == null) {
+            inFlight.remove(key);
+            return;
+        }
+        synchronized (cache) {
+            inFlight.remove(key);
+            cache.remove(key);
+        }
+    }
+
+    private V cached(String key) {
+        if (cache == null) {
+            return null;
+        }
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    // Caches what `call` read unless put() or invalidate() detached it while
+    // the store was running; both hold the same lock, so either the value is
+    // cached before they run or it is never cached.
+    private void cacheIfCurrent(String key, CompletableFuture<V> call, V value) {
+        if (cache != null) {
+            synchronized (cache) {
+                if (inFlight.get(key) == call) {
+                    cache.put(key, value);
+                }
+            }
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    // get()s answered null by the filter, without a store call
+    public long getFilterRejectedCount() {
+        return filterRejected.sum();
+    }
+
+    // get()s answered from the positive cache
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    // Store calls that found the key
+    public long getStoreHitCount() {
+        return storeHits.sum();
+    }
+
+    // Store calls that did not find the key: the filter's false positives,
+    // plus keys deleted from the store
+    public long getStoreMissCount() {
+        return storeMisses.sum();
+    }
+
+    // get()s that waited for another caller's store call instead of making one
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getStoreCallCount() {
+        return getStoreHitCount() + getStoreMissCount();
+    }
+}
@@ -0,0 +1,158 @@
+package org.anay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * How much store traffic BloomFilterCache saves, against a simulated store
+ * that takes a fixed latency per call.
+ *
+ * 1. Single-flight check: many threads get() the same existing key at once
+ *    and must share a single store call.
+ * 2. Load: threads look up a mix of existing usernames (skewed, so some are
+ *    hot) and names that were never registered, while a few registrations
+ *    go through put(). Each configuration prints where the lookups were
+ *    answered and how many store calls 100 lookups cost. Without the cache
+ *    every lookup is a store call.
+ *
+ * Usage: java org.anay.BloomFilterCacheBenchmark [threads] [secondsPerRun] [storeLatencyMicros] [absentPercent]
+ */
+public class BloomFilterCacheBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final double FPP = 0.01;
+    private static final int CACHE_SIZE = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long latencyNanos = TimeUnit.MICROSECONDS.toNanos(args.length > 2 ? Long.parseLong(args[2]) : 200);
+        int absentPercent = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        Map<String, String> users = new ConcurrentHashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            users.put(username(i), "profile of " + username(i));
+        }
+
+        singleFlightCheck(users, threads);
+
+        System.out.println(String.format("\n--- %d threads, %d registered users, %d%% of lookups for unregistered names, store latency %d us ---",
+                threads, USERS, absentPercent, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        System.out.println(String.format("%-14s %12s %10s %10s %10s %10s %10s %10s %16s",
+                "config", "lookups/s", "rejected", "cached", "coalesced", "store hit", "store miss", "errors", "calls/100 lookups"));
+        run("filter", users, 0, threads, seconds, latencyNanos, absentPercent);
+        run("filter+cache", users, CACHE_SIZE, threads, seconds, latencyNanos, absentPercent);
+    }
+
+    // ---------- SINGLE-FLIGHT ----------
+    private static void singleFlightCheck(Map<String, String> users, int threads) throws InterruptedException {
+        AtomicLong calls = new AtomicLong();
+        List<BloomFilterCache<String>> holder = new ArrayList<>();
+        Function<String, String> store = key -> {
+            calls.incrementAndGet();
+            // Keep the call open until every other thread is waiting on it
+            long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (holder.get(0).getCoalescedCount() < threads - 1 && System.nanoTime() < giveUp) {
+                Thread.yield();
+            }
+            return users.get(key);
+        };
+        BloomFilterCache<String> cache = new BloomFilterCache<>(filledFilter(users), store, 0);
+        holder.add(cache);
+        String key = username(42);
+        AtomicLong wrong = new AtomicLong();
+        List<Thread> pool = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            pool.add(new Thread(() -> {
+                if (!users.get(key).equals(cache.get(key))) {
+                    wrong.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread thread : pool) thread.start();
+        for (Thread thread : pool) thread.join();
+        if (calls.get() != 1 || wrong.get() != 0) {
+            throw new IllegalStateException("single-flight failed: " + calls.get() + " store calls, "
+                    + wrong.get() + " wrong values for " + threads + " concurrent gets");
+        }
+        System.out.println("Single-flight check passed: " + threads + " concurrent gets, 1 store call, "
+                + cache.getCoalescedCount() + " coalesced");
+    }
+
+    // ---------- LOAD ----------
+    private static void run(String label, Map<String, String> users, int cacheSize, int threads, int seconds,
+                            long latencyNanos, int absentPercent) throws InterruptedException {
+        Map<String, String> store = new ConcurrentHashMap<>(users);
+        BloomFilterCache<String> cache = new BloomFilterCache<>(filledFilter(store), key -> {
+            LockSupport.parkNanos(latencyNanos);
+            return store.get(key);
+        }, cacheSize);
+
+        AtomicLong lookups = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong registered = new AtomicLong(USERS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> pool = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            pool.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    if (random.nextInt(1000) == 0) {
+                        // A new user registers: store first, then the cache
+                        String name = username(registered.getAndIncrement());
+                        store.put(name, "profile of " + name);
+                        cache.put(name, store.get(name));
+                        continue;
+                    }
+                    String name;
+                    boolean exists = random.nextInt(100) >= absentPercent;
+                    if (exists) {
+                        // Cubing a uniform draw makes low user numbers much more popular
+                        double u = random.nextDouble();
+                        name = username((int) (u * u * u * USERS));
+                    } else {
+                        name = "guest_" + random.nextLong(Long.MAX_VALUE);
+                    }
+                    String value = cache.get(name);
+                    if ((value != null) != exists) {
+                        errors.incrementAndGet();
+                    }
+                    count++;
+                }
+                lookups.addAndGet(count);
+            }));
+        }
+        for (Thread thread : pool) thread.start();
+        for (Thread thread : pool) thread.join();
+
+        long total = lookups.get();
+        long answered = cache.getFilterRejectedCount() + cache.getCacheHitCount()
+                + cache.getCoalescedCount() + cache.getStoreCallCount();
+        if (answered != total) {
+            throw new IllegalStateException(label + ": counters add up to " + answered + " for " + total + " lookups");
+        }
+        System.out.println(String.format("%-14s %12.0f %10d %10d %10d %10d %10d %10d %16.2f",
+                label, (double) total / seconds, cache.getFilterRejectedCount(), cache.getCacheHitCount(),
+                cache.getCoalescedCount(), cache.getStoreHitCount(), cache.getStoreMissCount(), errors.get(),
+                100.0 * cache.getStoreCallCount() / total));
+    }
+
+    private static BloomFilter filledFilter(Map<String, String> users) {
+        // Concurrent, since registrations add to it while lookups read it
+        ScalableBloomFilter filter = ScalableBloomFilter.concurrent(USERS, FPP);
+        users.keySet().forEach(filter::add);
+        return filter;
+    }
+
+    private static String username(long i) {
+        return "user_" + i;
+    }
+}
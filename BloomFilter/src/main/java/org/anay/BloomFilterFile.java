@@ -0,0 +1,172 @@
+package org.anay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// On-disk format shared by SimpleBloomFilter and ScalableBloomFilter. All
+// numbers are little-endian:
+//
+//   0   int     magic "BLMF"
+//   4   int     format version
+//   8   long    Murmur3 seed the keys were hashed with
+//   16  int     layer count
+//   20  int     growth           (ScalableBloomFilter only, 0 otherwise)
+//   24  double  fpp              (ScalableBloomFilter only)
+//   32  double  tightening       (ScalableBloomFilter only)
+//   40  int     initial capacity (ScalableBloomFilter only)
+//   44  int     1 if new layers are ConcurrentBloomFilter, 0 if
+//                SimpleBloomFilter (ScalableBloomFilter only)
+//   48  16 bytes per layer: capacity, inserted count, m (bits), k
+//
+// followed by each layer's ceil(m / 64) words, bit i of a layer in bit
+// i % 64 of word i / 64. The header is a multiple of 8 bytes, so every
+// layer's words start 8-byte aligned and can be mapped as a LongBuffer.
+final class BloomFilterFile {
+
+    static final int MAGIC = 0x464d4c42;
+    // 2: probe positions from SimpleBloomFilter.probe, not h1 + i * h2
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 48;
+    private static final int LAYER_BYTES = 16;
+    private static final int CHUNK_WORDS = 8192;
+
+    // Scalable parameters as read from the header, plus the mapped layers.
+    final int growth;
+    final double fpp;
+    final double tightening;
+    final int initialCapacity;
+    final boolean concurrent;
+    final MappedBloomFilter[] layers;
+
+    private BloomFilterFile(int growth, double fpp, double tightening, int initialCapacity, boolean concurrent,
+                            MappedBloomFilter[] layers) {
+        this.growth = growth;
+        this.fpp = fpp;
+        this.tightening = tightening;
+        this.initialCapacity = initialCapacity;
+        this.concurrent = concurrent;
+        this.layers = layers;
+    }
+
+    // Writes to a temporary file next to `path` and renames it into place, so
+    // a reader never maps a half-written file.
+    static void write(Path path, int growth, double fpp, double tightening, int initialCapacity,
+                      boolean concurrent, BloomFilter[] layers) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + layers.length * LAYER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(Murmur3.SEED).putInt(layers.length).putInt(growth)
+                .putDouble(fpp).putDouble(tightening).putInt(initialCapacity).putInt(concurrent ? 1 : 0);
+        for (BloomFilter layer : layers) {
+            header.putInt(capacity(layer)).putInt(layer.getInsertedCount())
+                    .putInt((int) layer.bitSize()).putInt(hashFunctions(layer));
+        }
+        header.flip();
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_WORDS * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (BloomFilter layer : layers) {
+                long[] words = words(layer);
+                for (int from = 0; from < words.length; from += CHUNK_WORDS) {
+                    int count = Math.min(CHUNK_WORDS, words.length - from);
+                    chunk.clear();
+                    chunk.asLongBuffer().put(words, from, count);
+                    chunk.limit(count * Long.BYTES);
+                    writeFully(channel, chunk);
+                }
+            }
+            channel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Maps every layer read-only. The channel is closed before returning;
+    // the mappings stay valid until the buffers are garbage collected.
+    static BloomFilterFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(path + ": too short for a Bloom filter file");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(path + ": not a Bloom filter file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(path + ": unsupported format version " + header.getInt(4));
+            }
+            if (header.getLong(8) != Murmur3.SEED) {
+                throw new IOException(path + ": keys hashed with seed " + header.getLong(8) + ", expected " + Murmur3.SEED);
+            }
+            int layerCount = header.getInt(16);
+            if (layerCount < 1 || HEADER_BYTES + (long) layerCount * LAYER_BYTES > size) {
+                throw new IOException(path + ": bad layer count " + layerCount);
+            }
+
+            ByteBuffer layerList = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) layerCount * LAYER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            MappedBloomFilter[] layers = new MappedBloomFilter[layerCount];
+            long offset = HEADER_BYTES + (long) layerCount * LAYER_BYTES;
+            for (int i = 0; i < layerCount; i++) {
+                int capacity = layerList.getInt();
+                int insertedCount = layerList.getInt();
+                int bitSetSize = layerList.getInt();
+                int numberOfHashFunctions = layerList.getInt();
+                long bytes = (long) wordCount(bitSetSize) * Long.BYTES;
+                if (bitSetSize < 1 || numberOfHashFunctions < 1 || offset + bytes > size) {
+                    throw new IOException(path + ": layer " + i + " is truncated or corrupt");
+                }
+                LongBuffer words = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes)
+                        .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                layers[i] = new MappedBloomFilter(capacity, insertedCount, bitSetSize, numberOfHashFunctions, words);
+                offset += bytes;
+            }
+            if (offset != size) {
+                throw new IOException(path + ": " + (size - offset) + " trailing bytes");
+            }
+            return new BloomFilterFile(header.getInt(20), header.getDouble(24), header.getDouble(32), header.getInt(40),
+                    header.getInt(44) == 1, layers);
+        }
+    }
+
+    static int wordCount(int bitSetSize) {
+        return (int) (((long) bitSetSize + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    // Only the filters that share SimpleBloomFilter's bit layout can be
+    // written; BlockedBloomFilter places bits differently.
+    private static int capacity(BloomFilter layer) {
+        if (layer instanceof SimpleBloomFilter) return ((SimpleBloomFilter) layer).capacity();
+        if (layer instanceof ConcurrentBloomFilter) return ((ConcurrentBloomFilter) layer).capacity();
+        if (layer instanceof MappedBloomFilter) return ((MappedBloomFilter) layer).capacity();
+        throw new IllegalArgumentException("cannot write a " + layer.getClass().getSimpleName());
+    }
+
+    private static int hashFunctions(BloomFilter layer) {
+        if (layer instanceof SimpleBloomFilter) return ((SimpleBloomFilter) layer).hashFunctions();
+        if (layer instanceof ConcurrentBloomFilter) return ((ConcurrentBloomFilter) layer).hashFunctions();
+        if (layer instanceof MappedBloomFilter) return ((MappedBloomFilter) layer).hashFunctions();
+        throw new IllegalArgumentException("cannot write a " + layer.getClass().getSimpleName());
+    }
+
+    private static long[] words(BloomFilter layer) {
+        if (layer instanceof SimpleBloomFilter) return ((SimpleBloomFilter) layer).words();
+        if (layer instanceof ConcurrentBloomFilter) return ((ConcurrentBloomFilter) layer).words();
+        if (layer instanceof MappedBloomFilter) return ((MappedBloomFilter) layer).words();
+        throw new IllegalArgumentException("cannot write a " + layer.getClass().getSimpleName());
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
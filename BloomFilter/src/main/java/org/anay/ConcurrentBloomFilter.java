@@ -0,0 +1,89 @@
+package org.anay;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Thread-safe version of SimpleBloomFilter: same sizing, hashing and probes,
+// but the bits live in an AtomicLongArray and are set with a CAS loop, so
+// any number of threads can add and query at once without locks. A bit that
+// is already set is not written again, which keeps popular words from
+// bouncing between cores. Once add() returns, every later mightContain() for
+// that string (in any thread that can see the return) answers true.
+public class ConcurrentBloomFilter implements BloomFilter {
+
+    private final int capacity;
+    private final AtomicLongArray words;
+    private final LongAdder insertedCount = new LongAdder();
+    private final int bitSetSize;
+    private final int numberOfHashFunctions;
+
+    public ConcurrentBloomFilter(int capacity, double fpp) {
+        this.capacity = capacity;
+        // Same m and k as SimpleBloomFilter
+        this.numberOfHashFunctions = SimpleBloomFilter.optimalHashFunctions(fpp);
+        this.bitSetSize = SimpleBloomFilter.bitSetSize(capacity, fpp, numberOfHashFunctions);
+        this.words = new AtomicLongArray(BloomFilterFile.wordCount(bitSetSize));
+    }
+
+    @Override
+    public void addHash(long h1, long h2) {
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int bit = index(SimpleBloomFilter.probe(h1, h2, i));
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.weakCompareAndSetVolatile(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        insertedCount.increment();
+    }
+
+    @Override
+    public boolean mightContainHash(long h1, long h2) {
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int bit = index(SimpleBloomFilter.probe(h1, h2, i));
+            if ((words.get(bit >>> 6) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Concurrent adds can each see "not full" and push the count a little
+    // past capacity before anyone sees it.
+    @Override
+    public boolean isFull() {
+        return insertedCount.sum() >= capacity;
+    }
+
+    @Override
+    public int getInsertedCount() {
+        return insertedCount.intValue();
+    }
+
+    @Override
+    public long bitSize() {
+        return bitSetSize;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int hashFunctions() {
+        return numberOfHashFunctions;
+    }
+
+    long[] words() {
+        long[] copy = new long[words.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = words.get(i);
+        }
+        return copy;
+    }
+
+    private int index(long probe) {
+        return (int) (((probe >>> 32) * bitSetSize) >>> 32);
+    }
+}
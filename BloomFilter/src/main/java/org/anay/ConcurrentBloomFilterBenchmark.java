@@ -0,0 +1,103 @@
+package org.anay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Throughput of ConcurrentBloomFilter under a 90% mightContain / 10% add
+ * mix at 1..N threads, against SimpleBloomFilter behind one read/write lock.
+ * ConcurrentBloomFilterStressTest checks that concurrent adds never cause a
+ * false negative.
+ *
+ * Usage: java org.anay.ConcurrentBloomFilterBenchmark [maxThreads] [secondsPerRun]
+ */
+public class ConcurrentBloomFilterBenchmark {
+
+    private static final int CAPACITY = 10_000_000;
+    private static final double FPP = 0.01;
+    private static final int PRELOAD = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        System.out.println("--- Throughput: 90% mightContain / 10% add, capacity " + CAPACITY
+                + ", " + PRELOAD + " preloaded ---");
+        System.out.println(String.format("%8s %18s %18s", "threads", "concurrent ops/s", "locked ops/s"));
+        for (int t = 1; t <= maxThreads; t *= 2) {
+            double concurrent = throughput(new ConcurrentBloomFilter(CAPACITY, FPP), t, seconds);
+            double locked = throughput(lockedFilter(new SimpleBloomFilter(CAPACITY, FPP)), t, seconds);
+            System.out.println(String.format("%8d %18.0f %18.0f", t, concurrent, locked));
+        }
+    }
+
+    // ---------- THROUGHPUT ----------
+    private static double throughput(BloomFilter filter, int threads, int seconds) throws InterruptedException {
+        for (int i = 0; i < PRELOAD; i++) {
+            filter.add("user_" + i);
+        }
+
+        AtomicLong ops = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> pool = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            pool.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                while ((local & 1023) != 0 || System.nanoTime() < deadline) {
+                    String name = "user_" + random.nextInt(CAPACITY);
+                    if (random.nextInt(10) == 0) {
+                        filter.add(name);
+                    } else {
+                        filter.mightContain(name);
+                    }
+                    local++;
+                }
+                ops.addAndGet(local);
+            }));
+        }
+        pool.forEach(Thread::start);
+        for (Thread t : pool) {
+            t.join();
+        }
+        return ops.get() / (double) seconds;
+    }
+
+    private static BloomFilter lockedFilter(SimpleBloomFilter filter) {
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        return new BloomFilter() {
+            public void addHash(long h1, long h2) {
+                lock.writeLock().lock();
+                try {
+                    filter.addHash(h1, h2);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            public boolean mightContainHash(long h1, long h2) {
+                lock.readLock().lock();
+                try {
+                    return filter.mightContainHash(h1, h2);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            public boolean isFull() {
+                return filter.isFull();
+            }
+
+            public int getInsertedCount() {
+                return filter.getInsertedCount();
+            }
+
+            public long bitSize() {
+                return filter.bitSize();
+            }
+        };
+    }
+}
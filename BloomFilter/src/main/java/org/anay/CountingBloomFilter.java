@@ -0,0 +1,115 @@
+package org.anay;
+
+// SimpleBloomFilter with a 4-bit counter in place of each bit, so strings can
+// be removed again: add() increments the k counters of a string, remove()
+// decrements them, and mightContain() checks they are all non-zero. Sixteen
+// counters are packed in each long, four times the memory of the plain
+// filter for the same capacity and fpp.
+//
+// A counter that reaches 15 saturates: it is never incremented or
+// decremented again, since its true count is no longer known. For a filter
+// at capacity that is very unlikely (Fan et al. 2000 bound the chance of
+// any counter passing 15 by 1.4e-15 per counter), and the cost is only a
+// bit that can't be cleared.
+//
+// Removing a string that was never added can clear bits other strings need.
+// remove() refuses strings that mightContain() rejects, but a false positive
+// still slips through, so only remove strings you added.
+public class CountingBloomFilter implements DeletableFilter {
+
+    private static final int COUNTER_BITS = 4;
+    private static final long MAX_COUNT = (1L << COUNTER_BITS) - 1;
+
+    private final int capacity;
+    private final long[] counters;
+    private int insertedCount = 0;
+    private final int bitSetSize;
+    private final int numberOfHashFunctions;
+
+    public CountingBloomFilter(int capacity, double fpp) {
+        this.capacity = capacity;
+        // Same m and k as SimpleBloomFilter, with m counters instead of m bits
+        this.numberOfHashFunctions = SimpleBloomFilter.optimalHashFunctions(fpp);
+        this.bitSetSize = SimpleBloomFilter.bitSetSize(capacity, fpp, numberOfHashFunctions);
+        this.counters = new long[(int) (((long) bitSetSize * COUNTER_BITS + Long.SIZE - 1) / Long.SIZE)];
+    }
+
+    @Override
+    public void addHash(long h1, long h2) {
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int counter = index(SimpleBloomFilter.probe(h1, h2, i));
+            int shift = shift(counter);
+            if ((counters[counter >>> 4] >>> shift & MAX_COUNT) != MAX_COUNT) {
+                counters[counter >>> 4] += 1L << shift;
+            }
+        }
+        insertedCount++;
+    }
+
+    @Override
+    public boolean mightContainHash(long h1, long h2) {
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int counter = index(SimpleBloomFilter.probe(h1, h2, i));
+            if ((counters[counter >>> 4] >>> shift(counter) & MAX_COUNT) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns false, and changes nothing, if the string is definitely absent.
+    @Override
+    public boolean removeHash(long h1, long h2) {
+        if (!mightContainHash(h1, h2)) {
+            return false;
+        }
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int counter = index(SimpleBloomFilter.probe(h1, h2, i));
+            int shift = shift(counter);
+            long count = counters[counter >>> 4] >>> shift & MAX_COUNT;
+            // A string whose probes share a counter decrements it twice;
+            // stop at zero in case that string was never added
+            if (count != MAX_COUNT && count != 0) {
+                counters[counter >>> 4] -= 1L << shift;
+            }
+        }
+        insertedCount--;
+        return true;
+    }
+
+    @Override
+    public boolean isFull() {
+        return insertedCount >= capacity;
+    }
+
+    @Override
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    // Bits of storage, counters included, so it compares with the plain filters
+    @Override
+    public long bitSize() {
+        return (long) counters.length * Long.SIZE;
+    }
+
+    // Number of counters stuck at 15
+    public int getSaturatedCount() {
+        int saturated = 0;
+        for (int counter = 0; counter < bitSetSize; counter++) {
+            if ((counters[counter >>> 4] >>> shift(counter) & MAX_COUNT) == MAX_COUNT) {
+                saturated++;
+            }
+        }
+        return saturated;
+    }
+
+    // Same probe positions as SimpleBloomFilter.index
+    private int index(long probe) {
+        return (int) (((probe >>> 32) * bitSetSize) >>> 32);
+    }
+
+    private static int shift(int counter) {
+        return (counter & 15) * COUNTER_BITS;
+    }
+}
@@ -0,0 +1,146 @@
+package org.anay;
+
+import java.util.SplittableRandom;
+
+/**
+ * CountingBloomFilter against SimpleBloomFilter at the same capacity and fpp.
+ *
+ * 1. Cost: bits per key, and ns/op and ops/s for add, lookups of present and
+ *    absent strings, and (counting only) remove.
+ * 2. Churn: a table of `capacity` usernames where each round deletes 10% of
+ *    them and adds as many new ones, like renames. The plain filter can only
+ *    add, so deleted names stay in it; the counting filter removes them.
+ *    Reports the false positive rate over random absent strings and over
+ *    the deleted names, which a caller would like to see rejected.
+ *
+ * Usage: java org.anay.CountingBloomFilterBenchmark [capacity] [fpp] [rounds]
+ */
+public class CountingBloomFilterBenchmark {
+
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        double fpp = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        String[] keys = new String[capacity];
+        String[] absent = new String[capacity];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = "user_" + i;
+            absent[i] = "!" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        }
+
+        System.out.println(String.format("--- Cost: %d keys, fpp %.4f ---", capacity, fpp));
+        System.out.println(String.format("%-10s %9s %9s %9s %9s %9s %14s",
+                "filter", "bits/key", "add ns", "hit ns", "miss ns", "remove ns", "lookup ops/s"));
+        for (int round = 0; round < 3; round++) {
+            boolean print = round == 2;
+            cost("simple", new SimpleBloomFilter(capacity, fpp), keys, absent, print);
+            cost("counting", new CountingBloomFilter(capacity, fpp), keys, absent, print);
+        }
+
+        System.out.println(String.format("\n--- Churn: %d usernames, 10%% renamed per round ---", capacity));
+        System.out.println(String.format("%6s %12s %12s %14s %14s %10s",
+                "round", "simple fpr", "counting fpr", "simple stale", "counting stale", "saturated"));
+        churn(capacity, fpp, rounds, absent);
+    }
+
+    private static void cost(String label, BloomFilter filter, String[] keys, String[] absent, boolean print) {
+        long t0 = System.nanoTime();
+        for (String key : keys) {
+            filter.add(key);
+        }
+        long addNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        int hits = 0;
+        for (String key : keys) {
+            if (filter.mightContain(key)) hits++;
+        }
+        long hitNanos = System.nanoTime() - t0;
+        if (hits != keys.length) {
+            throw new IllegalStateException(label + ": false negatives");
+        }
+
+        t0 = System.nanoTime();
+        for (String key : absent) {
+            if (filter.mightContain(key)) hits++;
+        }
+        long missNanos = System.nanoTime() - t0;
+
+        long removeNanos = 0;
+        if (filter instanceof CountingBloomFilter) {
+            CountingBloomFilter counting = (CountingBloomFilter) filter;
+            t0 = System.nanoTime();
+            for (String key : keys) {
+                counting.remove(key);
+            }
+            removeNanos = System.nanoTime() - t0;
+            if (counting.getInsertedCount() != 0) {
+                throw new IllegalStateException(label + ": " + counting.getInsertedCount() + " strings left after removing all");
+            }
+        }
+
+        if (print) {
+            int n = keys.length;
+            System.out.println(String.format("%-10s %9.2f %9.1f %9.1f %9.1f %9s %14.0f",
+                    label, (double) filter.bitSize() / n, (double) addNanos / n, (double) hitNanos / n,
+                    (double) missNanos / n, removeNanos == 0 ? "-" : String.format("%.1f", (double) removeNanos / n),
+                    2.0 * n / ((hitNanos + missNanos) / 1e9)));
+        }
+    }
+
+    private static void churn(int capacity, double fpp, int rounds, String[] absent) {
+        SimpleBloomFilter simple = new SimpleBloomFilter(capacity, fpp);
+        CountingBloomFilter counting = new CountingBloomFilter(capacity, fpp);
+        // table[i] is the username in slot i; a rename replaces it
+        String[] table = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            table[i] = "user_" + i;
+            simple.add(table[i]);
+            counting.add(table[i]);
+        }
+
+        SplittableRandom random = new SplittableRandom(7);
+        int renamesPerRound = capacity / 10;
+        String[] deleted = new String[renamesPerRound * rounds];
+        int deletedCount = 0;
+        int nextName = capacity;
+        for (int round = 1; round <= rounds; round++) {
+            for (int r = 0; r < renamesPerRound; r++) {
+                int slot = random.nextInt(capacity);
+                if (!counting.remove(table[slot])) {
+                    throw new IllegalStateException("counting: present name rejected: " + table[slot]);
+                }
+                deleted[deletedCount++] = table[slot];
+                table[slot] = "user_" + nextName++;
+                simple.add(table[slot]);
+                counting.add(table[slot]);
+            }
+
+            for (String name : table) {
+                if (!simple.mightContain(name) || !counting.mightContain(name)) {
+                    throw new IllegalStateException("false negative for " + name);
+                }
+            }
+            // New names are never reused, so every deleted name is absent
+            int staleSimple = 0;
+            int staleCounting = 0;
+            for (int i = 0; i < deletedCount; i++) {
+                if (simple.mightContain(deleted[i])) staleSimple++;
+                if (counting.mightContain(deleted[i])) staleCounting++;
+            }
+            System.out.println(String.format("%6d %12.5f %12.5f %14.5f %14.5f %10d",
+                    round, rate(simple, absent), rate(counting, absent),
+                    (double) staleSimple / deletedCount, (double) staleCounting / deletedCount, counting.getSaturatedCount()));
+        }
+    }
+
+    private static double rate(BloomFilter filter, String[] absent) {
+        int hits = 0;
+        for (String key : absent) {
+            if (filter.mightContain(key)) hits++;
+        }
+        return (double) hits / absent.length;
+    }
+}
@@ -0,0 +1,242 @@
+package org.anay;
+
+// Cuckoo filter (Fan, Andersen, Kaminsky, Mitzenmacher 2014). Each string is
+// stored as an f-bit fingerprint in one of two buckets of four slots, so a
+// lookup reads two buckets and strings can be removed. Slots are packed
+// back to back in a long[], f bits each.
+//
+// The fingerprint length comes from the fpp: a lookup compares against up
+// to 8 fingerprints, so fpp ~ 8 / 2^f. At fpp 0.1% that is 13 bits, or 13.7
+// bits per string at 95% load against 14.4 for SimpleBloomFilter; at 1% the
+// Bloom filter is smaller (10.5 against 9.6).
+//
+// The second bucket is found from the first and the fingerprint alone, as
+// (hash(fingerprint) - bucket) mod buckets, which maps each bucket of the
+// pair to the other for any number of buckets. So a fingerprint can be
+// moved without the original string: add() puts the fingerprint in a free
+// slot of either bucket, or evicts a random one and moves that to its other
+// bucket, up to MAX_KICKS times. If that fails the last evicted fingerprint
+// is kept aside as the victim and the filter reports full, so nothing is
+// lost; ScalableBloomFilter.cuckoo() then starts a new layer.
+//
+// As with CountingBloomFilter, only remove strings that were added: removing
+// a false positive deletes another string's fingerprint.
+public class CuckooFilter implements DeletableFilter {
+
+    private static final int SLOTS_PER_BUCKET = 4;
+    private static final double MAX_LOAD = 0.95;
+    private static final int MAX_KICKS = 500;
+
+    private final int capacity;
+    private final long[] words;
+    private final int bucketCount;
+    private final int fingerprintBits;
+    private final long fingerprintMask;
+    // With 4 * f <= 64 a bucket fits in one long and is compared in one go:
+    // the low and high bit of each f-bit lane, and the bucket's bits
+    private final long laneLowBits;
+    private final long laneHighBits;
+    private final long bucketMask;
+    private int insertedCount = 0;
+    private long random = 0x9e3779b97f4a7c15L;
+
+    // The victim fingerprint and its bucket, if a kick chain failed
+    private int victim = 0;
+    private int victimBucket;
+
+    public CuckooFilter(int capacity, double fpp) {
+        this.capacity = capacity;
+        this.fingerprintBits = Math.max(4, Math.min(32, (int) Math.ceil(Math.log(2.0 * SLOTS_PER_BUCKET / fpp) / Math.log(2))));
+        this.fingerprintMask = (1L << fingerprintBits) - 1;
+        long low = 0;
+        for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+            low |= 1L << (i * fingerprintBits);
+        }
+        boolean packed = SLOTS_PER_BUCKET * fingerprintBits <= Long.SIZE;
+        this.laneLowBits = packed ? low : 0;
+        this.laneHighBits = packed ? low << (fingerprintBits - 1) : 0;
+        this.bucketMask = !packed ? 0 : SLOTS_PER_BUCKET * fingerprintBits == Long.SIZE ? -1L : (1L << SLOTS_PER_BUCKET * fingerprintBits) - 1;
+        this.bucketCount = (int) Math.max(1, Math.ceil(capacity / (SLOTS_PER_BUCKET * MAX_LOAD)));
+        long bits = (long) bucketCount * SLOTS_PER_BUCKET * fingerprintBits;
+        // One spare word so a slot that ends in the last word can read past it
+        this.words = new long[(int) ((bits + Long.SIZE - 1) / Long.SIZE) + 1];
+    }
+
+    @Override
+    public void addHash(long h1, long h2) {
+        if (victim != 0) {
+            // There is room for one victim only
+            throw new IllegalStateException("cuckoo filter is full");
+        }
+        place(bucket(h1), fingerprint(h2));
+        insertedCount++;
+    }
+
+    @Override
+    public boolean mightContainHash(long h1, long h2) {
+        int fingerprint = fingerprint(h2);
+        int bucket = bucket(h1);
+        int other = alternate(bucket, fingerprint);
+        return bucketHas(bucket, fingerprint) || bucketHas(other, fingerprint)
+                || (victim == fingerprint && (victimBucket == bucket || victimBucket == other));
+    }
+
+    @Override
+    public boolean removeHash(long h1, long h2) {
+        int fingerprint = fingerprint(h2);
+        int bucket = bucket(h1);
+        int other = alternate(bucket, fingerprint);
+        if (victim == fingerprint && (victimBucket == bucket || victimBucket == other)) {
+            victim = 0;
+        } else if (!delete(bucket, fingerprint) && !delete(other, fingerprint)) {
+            return false;
+        } else if (victim != 0) {
+            // A slot is free again; give the victim another chance
+            int pending = victim;
+            victim = 0;
+            place(victimBucket, pending);
+        }
+        insertedCount--;
+        return true;
+    }
+
+    // Full once sized capacity is reached or a kick chain has failed
+    @Override
+    public boolean isFull() {
+        return insertedCount >= capacity || victim != 0;
+    }
+
+    @Override
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    @Override
+    public long bitSize() {
+        return (long) bucketCount * SLOTS_PER_BUCKET * fingerprintBits;
+    }
+
+    public double getLoadFactor() {
+        return (double) insertedCount / ((long) bucketCount * SLOTS_PER_BUCKET);
+    }
+
+    private void place(int bucket, int fingerprint) {
+        int other = alternate(bucket, fingerprint);
+        if (!insert(bucket, fingerprint) && !insert(other, fingerprint)) {
+            kick((random() & 1) == 0 ? bucket : other, fingerprint);
+        }
+    }
+
+    private void kick(int bucket, int fingerprint) {
+        for (int n = 0; n < MAX_KICKS; n++) {
+            int slot = bucket * SLOTS_PER_BUCKET + (int) (random() & (SLOTS_PER_BUCKET - 1));
+            int evicted = get(slot);
+            set(slot, fingerprint);
+            fingerprint = evicted;
+            bucket = alternate(bucket, fingerprint);
+            if (insert(bucket, fingerprint)) {
+                return;
+            }
+        }
+        victim = fingerprint;
+        victimBucket = bucket;
+    }
+
+    private boolean insert(int bucket, int fingerprint) {
+        int first = bucket * SLOTS_PER_BUCKET;
+        for (int slot = first; slot < first + SLOTS_PER_BUCKET; slot++) {
+            if (get(slot) == 0) {
+                set(slot, fingerprint);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean delete(int bucket, int fingerprint) {
+        int first = bucket * SLOTS_PER_BUCKET;
+        for (int slot = first; slot < first + SLOTS_PER_BUCKET; slot++) {
+            if (get(slot) == fingerprint) {
+                set(slot, 0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean bucketHas(int bucket, int fingerprint) {
+        if (bucketMask != 0) {
+            // XOR zeroes the lanes equal to the fingerprint; (x - low) & ~x & high
+            // is non-zero exactly when some lane of x is zero
+            long x = bucketBits(bucket) ^ fingerprint * laneLowBits;
+            return ((x - laneLowBits) & ~x & laneHighBits) != 0;
+        }
+        int first = bucket * SLOTS_PER_BUCKET;
+        for (int slot = first; slot < first + SLOTS_PER_BUCKET; slot++) {
+            if (get(slot) == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long bucketBits(int bucket) {
+        long bit = (long) bucket * SLOTS_PER_BUCKET * fingerprintBits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) bit & 63;
+        long value = words[word] >>> shift;
+        if (shift != 0) {
+            value |= words[word + 1] << (Long.SIZE - shift);
+        }
+        return value & bucketMask;
+    }
+
+    // Slot s occupies bits [s * f, (s + 1) * f), possibly across two words
+    private int get(int slot) {
+        long bit = (long) slot * fingerprintBits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) bit & 63;
+        long value = words[word] >>> shift;
+        if (shift + fingerprintBits > Long.SIZE) {
+            value |= words[word + 1] << (Long.SIZE - shift);
+        }
+        return (int) (value & fingerprintMask);
+    }
+
+    private void set(int slot, int fingerprint) {
+        long bit = (long) slot * fingerprintBits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) bit & 63;
+        long value = fingerprint & fingerprintMask;
+        words[word] = words[word] & ~(fingerprintMask << shift) | value << shift;
+        if (shift + fingerprintBits > Long.SIZE) {
+            int spill = Long.SIZE - shift;
+            words[word + 1] = words[word + 1] & ~(fingerprintMask >>> spill) | value >>> spill;
+        }
+    }
+
+    // The high 32 bits of h1 scaled to [0, bucketCount), as in SimpleBloomFilter
+    private int bucket(long h1) {
+        return (int) (((h1 >>> 32) * bucketCount) >>> 32);
+    }
+
+    // Low f bits of h2; 0 marks an empty slot, so it is moved to 1
+    private int fingerprint(long h2) {
+        int fingerprint = (int) (h2 & fingerprintMask);
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private int alternate(int bucket, int fingerprint) {
+        long mixed = Murmur3.fmix64(fingerprint) >>> 32;
+        int offset = (int) ((mixed * bucketCount) >>> 32);
+        int other = offset - bucket;
+        return other < 0 ? other + bucketCount : other;
+    }
+
+    private long random() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return random >>> 1;
+    }
+}
@@ -0,0 +1,158 @@
+package org.anay;
+
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * CuckooFilter against the Bloom filters.
+ *
+ * 1. Fixed size: each filter sized for and filled with `capacity` keys, at
+ *    fpp 1% and 0.1%. Reports bits per key, insert throughput, lookup ns
+ *    for present and absent keys and the measured false positive rate.
+ * 2. Load: a cuckoo filter filled in steps up to its 95% design load,
+ *    with insert throughput, miss latency and false positive rate per step.
+ *    Every key is then removed again, which must leave it empty.
+ * 3. Growing: ScalableBloomFilter with Bloom layers against cuckoo()
+ *    layers, grown from capacity / 1000 to capacity keys at fpp 1%.
+ *
+ * Usage: java org.anay.CuckooFilterBenchmark [capacity]
+ */
+public class CuckooFilterBenchmark {
+
+    private static final int LOOKUPS = 2_000_000;
+
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        String[] keys = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = "user_" + i;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        String[] present = new String[LOOKUPS];
+        String[] absent = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            present[i] = keys[random.nextInt(capacity)];
+            absent[i] = "!" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        }
+
+        System.out.println(String.format("--- Fixed size: %d keys ---", capacity));
+        System.out.println(String.format("%8s %-10s %9s %12s %9s %9s %12s",
+                "fpp", "filter", "bits/key", "add Mops/s", "hit ns", "miss ns", "measured fpp"));
+        for (double fpp : new double[]{0.01, 0.001}) {
+            for (int round = 0; round < 3; round++) {
+                boolean print = round == 2;
+                fixed("simple", SimpleBloomFilter::new, fpp, keys, present, absent, print);
+                fixed("blocked", BlockedBloomFilter::new, fpp, keys, present, absent, print);
+                fixed("counting", CountingBloomFilter::new, fpp, keys, present, absent, print);
+                fixed("cuckoo", CuckooFilter::new, fpp, keys, present, absent, print);
+            }
+        }
+
+        System.out.println(String.format("\n--- Load: cuckoo filter for %d keys, fpp 0.001 ---", capacity));
+        System.out.println(String.format("%8s %12s %9s %12s", "load", "add Mops/s", "miss ns", "measured fpp"));
+        load(keys, absent, 0.001);
+
+        System.out.println(String.format("\n--- Growing from %d to %d keys, fpp 0.01 ---", Math.max(1, capacity / 1000), capacity));
+        System.out.println(String.format("%-10s %7s %9s %12s %9s %9s %12s",
+                "layers", "count", "bits/key", "add Mops/s", "hit ns", "miss ns", "measured fpp"));
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            growing("bloom", new ScalableBloomFilter(Math.max(1, capacity / 1000), 0.01), keys, present, absent, print);
+            growing("cuckoo", ScalableBloomFilter.cuckoo(Math.max(1, capacity / 1000), 0.01), keys, present, absent, print);
+        }
+    }
+
+    private static void fixed(String label, BiFunction<Integer, Double, BloomFilter> factory, double fpp,
+                              String[] keys, String[] present, String[] absent, boolean print) {
+        BloomFilter filter = factory.apply(keys.length, fpp);
+        long t0 = System.nanoTime();
+        for (String key : keys) {
+            filter.add(key);
+        }
+        long addNanos = System.nanoTime() - t0;
+        long[] lookup = lookups(label, filter::mightContain, present, absent);
+        if (print) {
+            System.out.println(String.format("%8.4f %-10s %9.2f %12.2f %9.1f %9.1f %12.5f",
+                    fpp, label, (double) filter.bitSize() / keys.length, keys.length / (addNanos / 1e3),
+                    (double) lookup[0] / present.length, (double) lookup[1] / absent.length,
+                    (double) lookup[2] / absent.length));
+        }
+    }
+
+    private static void load(String[] keys, String[] absent, double fpp) {
+        CuckooFilter filter = new CuckooFilter(keys.length, fpp);
+        double[] steps = {0.5, 0.8, 0.9, 0.95};
+        int from = 0;
+        for (double step : steps) {
+            // The filter has keys.length / 0.95 slots
+            int to = (int) Math.min(keys.length, keys.length * step / 0.95);
+            long t0 = System.nanoTime();
+            for (int i = from; i < to; i++) {
+                filter.add(keys[i]);
+            }
+            long addNanos = System.nanoTime() - t0;
+            if (filter.isFull() && to < keys.length) {
+                System.out.println(String.format("%8.3f full: a kick chain failed", filter.getLoadFactor()));
+                return;
+            }
+            for (int i = 0; i < to; i++) {
+                if (!filter.mightContain(keys[i])) {
+                    throw new IllegalStateException("cuckoo: false negative for " + keys[i]);
+                }
+            }
+            t0 = System.nanoTime();
+            int hits = 0;
+            for (String key : absent) {
+                if (filter.mightContain(key)) hits++;
+            }
+            long missNanos = System.nanoTime() - t0;
+            System.out.println(String.format("%8.3f %12.2f %9.1f %12.5f",
+                    filter.getLoadFactor(), (to - from) / (addNanos / 1e3),
+                    (double) missNanos / absent.length, (double) hits / absent.length));
+            from = to;
+        }
+        for (int i = 0; i < from; i++) {
+            if (!filter.remove(keys[i])) {
+                throw new IllegalStateException("cuckoo: could not remove " + keys[i]);
+            }
+        }
+        if (filter.getInsertedCount() != 0 || filter.mightContain(keys[0])) {
+            throw new IllegalStateException("cuckoo: not empty after removing every key");
+        }
+    }
+
+    private static void growing(String label, ScalableBloomFilter filter, String[] keys,
+                                String[] present, String[] absent, boolean print) {
+        long t0 = System.nanoTime();
+        for (String key : keys) {
+            filter.add(key);
+        }
+        long addNanos = System.nanoTime() - t0;
+        long[] lookup = lookups(label, filter::mightContain, present, absent);
+        if (print) {
+            System.out.println(String.format("%-10s %7d %9.2f %12.2f %9.1f %9.1f %12.5f",
+                    label, filter.getLayerCount(), filter.getMemoryBytes() * 8.0 / keys.length,
+                    keys.length / (addNanos / 1e3), (double) lookup[0] / present.length,
+                    (double) lookup[1] / absent.length, (double) lookup[2] / absent.length));
+        }
+    }
+
+    // Returns {hit nanos, miss nanos, false positives}
+    private static long[] lookups(String label, Predicate<String> filter, String[] present, String[] absent) {
+        long t0 = System.nanoTime();
+        for (String key : present) {
+            if (!filter.test(key)) {
+                throw new IllegalStateException(label + ": false negative for " + key);
+            }
+        }
+        long hitNanos = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        long falsePositives = 0;
+        for (String key : absent) {
+            if (filter.test(key)) falsePositives++;
+        }
+        return new long[]{hitNanos, System.nanoTime() - t0, falsePositives};
+    }
+}
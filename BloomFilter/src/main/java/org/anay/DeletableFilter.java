@@ -0,0 +1,18 @@
+package org.anay;
+
+// A BloomFilter that can forget a string again: CountingBloomFilter,
+// CuckooFilter, and ScalableBloomFilter.cuckoo(). Only remove strings that
+// were added; removing a false positive clears what another string needs,
+// which turns that string into a false negative.
+public interface DeletableFilter extends BloomFilter {
+
+    // Returns true if the string was removed, false if it is definitely
+    // absent (or, for ScalableBloomFilter.cuckoo(), left in; see there).
+    default boolean remove(String data) {
+        long[] hash = new long[2];
+        Murmur3.hash128(data, hash);
+        return removeHash(hash[0], hash[1]);
+    }
+
+    boolean removeHash(long h1, long h2);
+}
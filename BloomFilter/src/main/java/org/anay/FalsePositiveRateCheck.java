@@ -0,0 +1,85 @@
+package org.anay;
+
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+/**
+ * Checks the measured false positive rate against the fpp a filter was sized
+ * for, over a range of capacities. Each filter is filled to capacity and then
+ * probed with strings that were never added:
+ *
+ * random     random base-36 strings
+ * twins      each added key with "Aa" swapped for "BB". The two strings have
+ *            the same String.hashCode(), so a filter that hashes through
+ *            hashCode() answers true for every one of them.
+ *
+ * SimpleBloomFilter must stay within 20% of fpp plus four standard errors of
+ * the measurement. BlockedBloomFilter is reported only; its blocks trade
+ * some accuracy for speed. FalsePositiveRateTest asserts the same limit as
+ * part of the build.
+ *
+ * Usage: java org.anay.FalsePositiveRateCheck [probes]
+ */
+public class FalsePositiveRateCheck {
+
+    private static final int[] CAPACITIES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final double[] FPPS = {0.01, 0.001};
+    private static final double TOLERANCE = 1.2;
+
+    public static void main(String[] args) {
+        int probes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println(String.format("%10s %8s %-8s %12s %12s %12s %12s",
+                "capacity", "fpp", "filter", "random", "twins", "limit", ""));
+        int failures = 0;
+        for (double fpp : FPPS) {
+            for (int capacity : CAPACITIES) {
+                failures += check("simple", SimpleBloomFilter::new, capacity, fpp, probes, true);
+                check("blocked", BlockedBloomFilter::new, capacity, fpp, probes, false);
+            }
+        }
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " configuration(s) above their fpp limit");
+        }
+        System.out.println("All measured false positive rates within limits");
+    }
+
+    private static int check(String label, BiFunction<Integer, Double, BloomFilter> factory,
+                             int capacity, double fpp, int probes, boolean enforce) {
+        SplittableRandom random = new SplittableRandom(capacity);
+        BloomFilter filter = factory.apply(capacity, fpp);
+        String[] keys = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = "Aa_user_" + i;
+            filter.add(keys[i]);
+        }
+        for (String key : keys) {
+            if (!filter.mightContain(key)) {
+                throw new IllegalStateException(label + ": false negative for " + key);
+            }
+        }
+
+        int randomHits = 0;
+        for (int i = 0; i < probes; i++) {
+            // '!' never appears in the keys, so these are all absent
+            if (filter.mightContain("!" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36))) {
+                randomHits++;
+            }
+        }
+        int twinHits = 0;
+        int twins = Math.min(probes, capacity);
+        for (int i = 0; i < twins; i++) {
+            if (filter.mightContain("BB" + keys[i].substring(2))) {
+                twinHits++;
+            }
+        }
+
+        double randomRate = (double) randomHits / probes;
+        double twinRate = (double) twinHits / twins;
+        double limit = fpp * TOLERANCE + 4 * Math.sqrt(fpp * (1 - fpp) / Math.min(probes, twins));
+        boolean ok = randomRate <= limit && twinRate <= limit;
+        System.out.println(String.format("%10d %8.4f %-8s %12.5f %12.5f %12.5f %12s",
+                capacity, fpp, label, randomRate, twinRate, limit, enforce ? (ok ? "ok" : "FAIL") : ""));
+        return enforce && !ok ? 1 : 0;
+    }
+}
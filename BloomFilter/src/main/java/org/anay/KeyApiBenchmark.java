@@ -0,0 +1,175 @@
+package org.anay;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Cost per lookup of each way to pass a key, with the bytes allocated per
+ * lookup (from the JVM's per-thread allocation counter) next to ns/op.
+ *
+ * Keys arrive as UTF-8 bytes in one buffer, like a request off the wire:
+ *
+ * string     new String(bytes) then mightContain(String), what callers do today
+ * byte[]     mightContain(byte[], offset, length) on the buffer
+ * direct     mightContain(ByteBuffer) on a direct copy of the buffer
+ * long       mightContain(long) for numeric ids, on a filter of ids
+ *
+ * and in batches of BATCH keys that are already Strings or longs:
+ *
+ * each       mightContain() in a loop
+ * all        mightContainAll(keys, results)
+ *
+ * Half the lookups are for added keys. SimpleBloomFilter at two sizes, one
+ * that fits in cache and one that doesn't, and a ScalableBloomFilter grown
+ * to the larger size.
+ *
+ * Usage: java org.anay.KeyApiBenchmark [keys] [lookups]
+ */
+public class KeyApiBenchmark {
+
+    private static final double FPP = 0.01;
+    private static final int BATCH = 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static int sink;
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println(String.format("%-22s %-12s %10s %10s", "filter", "path", "ns/op", "B/op"));
+        for (int size : new int[]{Math.max(1, keys / 100), keys}) {
+            run("simple " + size, new SimpleBloomFilter(size, FPP), new SimpleBloomFilter(size, FPP), size, lookups);
+        }
+        run("scalable " + keys, new ScalableBloomFilter(Math.max(1, keys / 1000), FPP),
+                new ScalableBloomFilter(Math.max(1, keys / 1000), FPP), keys, lookups);
+    }
+
+    private static void run(String label, BloomFilter filter, BloomFilter ids, int size, int lookups) {
+        for (int i = 0; i < size; i++) {
+            filter.add("user_" + i);
+            ids.add((long) i * 7919);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        // Lookup keys, back to back as UTF-8 in one buffer
+        byte[] wire = new byte[lookups * 20];
+        int[] offsets = new int[lookups + 1];
+        String[] strings = new String[lookups];
+        long[] longs = new long[lookups];
+        int at = 0;
+        for (int i = 0; i < lookups; i++) {
+            int n = random.nextInt(size);
+            strings[i] = i % 2 == 0 ? "user_" + n : "user_" + (size + n);
+            longs[i] = (i % 2 == 0 ? n : size + n) * 7919L;
+            byte[] bytes = strings[i].getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(bytes, 0, wire, at, bytes.length);
+            offsets[i] = at;
+            at += bytes.length;
+        }
+        offsets[lookups] = at;
+        ByteBuffer direct = ByteBuffer.allocateDirect(at);
+        direct.put(wire, 0, at).clear();
+
+        for (int round = 0; round < 3; round++) {
+            boolean print = round == 2;
+            measure(label, "string", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i < lookups; i++) {
+                    String key = new String(wire, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+                    if (filter.mightContain(key)) hits++;
+                }
+                return hits;
+            });
+            measure(label, "byte[]", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i < lookups; i++) {
+                    if (filter.mightContain(wire, offsets[i], offsets[i + 1] - offsets[i])) hits++;
+                }
+                return hits;
+            });
+            measure(label, "direct", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i < lookups; i++) {
+                    direct.limit(offsets[i + 1]).position(offsets[i]);
+                    if (filter.mightContain(direct)) hits++;
+                }
+                direct.clear();
+                return hits;
+            });
+            measure(label, "long", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i < lookups; i++) {
+                    if (ids.mightContain(longs[i])) hits++;
+                }
+                return hits;
+            });
+
+            String[] stringBatch = new String[BATCH];
+            long[] longBatch = new long[BATCH];
+            BitSet results = new BitSet(BATCH);
+            measure(label, "each String", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i + BATCH <= lookups; i += BATCH) {
+                    for (int j = 0; j < BATCH; j++) {
+                        if (filter.mightContain(strings[i + j])) hits++;
+                    }
+                }
+                return hits;
+            });
+            measure(label, "all String", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i + BATCH <= lookups; i += BATCH) {
+                    System.arraycopy(strings, i, stringBatch, 0, BATCH);
+                    filter.mightContainAll(stringBatch, results);
+                    hits += results.cardinality();
+                }
+                return hits;
+            });
+            measure(label, "each long", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i + BATCH <= lookups; i += BATCH) {
+                    for (int j = 0; j < BATCH; j++) {
+                        if (ids.mightContain(longs[i + j])) hits++;
+                    }
+                }
+                return hits;
+            });
+            measure(label, "all long", print, lookups, () -> {
+                int hits = 0;
+                for (int i = 0; i + BATCH <= lookups; i += BATCH) {
+                    System.arraycopy(longs, i, longBatch, 0, BATCH);
+                    ids.mightContainAll(longBatch, results);
+                    hits += results.cardinality();
+                }
+                return hits;
+            });
+        }
+    }
+
+    private interface Body {
+        int run();
+    }
+
+    private static void measure(String label, String path, boolean print, int ops, Body body) {
+        long thread = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(thread);
+        long t0 = System.nanoTime();
+        int hits = body.run();
+        long nanos = System.nanoTime() - t0;
+        bytes = THREADS.getThreadAllocatedBytes(thread) - bytes;
+        if (hits < ops / 2 - BATCH) {
+            throw new IllegalStateException(label + " " + path + ": only " + hits + " hits, expected at least half");
+        }
+        sink += hits;
+        if (print) {
+            System.out.println(String.format("%-22s %-12s %10.1f %10.1f",
+                    label, path, (double) nanos / ops, (double) bytes / ops));
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package org.anay;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 
         List<String> db_usernames = new ArrayList<>();
         for(int i=0; i<1000; i++){
             db_usernames.add("user_"+i);
         }
 
-        ScalableBloomFilter bloomFilter = new ScalableBloomFilter(500,0.01);
-
-        System.out.println("Populating the bloom filter");
-        db_usernames.forEach(bloomFilter::add);
+        // The filter saved by the previous start, if any (see StartupBenchmark
+        // for load against re-populating at 100M users)
+        Path saved = Path.of(args.length > 0 ? args[0] : "usernames.bloom");
+        ScalableBloomFilter bloomFilter = loadSaved(saved);
+        if (bloomFilter == null) {
+            bloomFilter = new ScalableBloomFilter(500,0.01);
+
+            System.out.println("Populating the bloom filter");
+            db_usernames.forEach(bloomFilter::add);
+            bloomFilter.writeTo(saved);
+            System.out.println("Saved the bloom filter to " + saved);
+        }
 
         bloomFilter.printStats(db_usernames);
 
@@ -27,4 +38,23 @@ public class Main {
         System.out.println("Contains '"+testUser2+ "' : "+ bloomFilter.mightContain(testUser2));
         System.out.println("Contains '"+testUser3+ "' : "+ bloomFilter.mightContain(testUser3));*/
     }
-}
\ No newline at end of file
+
+    // null if there is no usable file, so the caller re-populates from the
+    // database. The file is only as fresh as the last save: usernames created
+    // since then must be added to the loaded filter (and saved again) or they
+    // will be rejected.
+    private static ScalableBloomFilter loadSaved(Path saved) {
+        if (!Files.exists(saved)) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            ScalableBloomFilter loaded = ScalableBloomFilter.load(saved);
+            System.out.printf("Loaded the bloom filter from %s in %.1f ms\n", saved, (System.nanoTime() - start) / 1e6);
+            return loaded;
+        } catch (IOException e) {
+            System.out.println("Could not load " + saved + " (" + e.getMessage() + "), re-populating");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.anay;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+
+// Read-only SimpleBloomFilter answered straight from a memory-mapped file
+// (see BloomFilterFile). Loading maps the file instead of reading it, so
+// startup costs a few system calls whatever the size; pages are faulted in
+// by the first lookups that touch them. Safe to share between threads.
+//
+// isFull() is always true, so a ScalableBloomFilter loaded from a file puts
+// new strings in a fresh in-memory layer.
+public class MappedBloomFilter implements BloomFilter {
+
+    private final int capacity;
+    private final int insertedCount;
+    private final int bitSetSize;
+    private final int numberOfHashFunctions;
+    private final LongBuffer words;
+
+    MappedBloomFilter(int capacity, int insertedCount, int bitSetSize, int numberOfHashFunctions, LongBuffer words) {
+        this.capacity = capacity;
+        this.insertedCount = insertedCount;
+        this.bitSetSize = bitSetSize;
+        this.numberOfHashFunctions = numberOfHashFunctions;
+        this.words = words;
+    }
+
+    @Override
+    public void addHash(long h1, long h2) {
+        throw new UnsupportedOperationException("a mapped Bloom filter is read-only");
+    }
+
+    @Override
+    public boolean mightContainHash(long h1, long h2) {
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            int bit = index(SimpleBloomFilter.probe(h1, h2, i));
+            if ((words.get(bit >>> 6) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isFull() {
+        return true;
+    }
+
+    @Override
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    @Override
+    public long bitSize() {
+        return bitSetSize;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int hashFunctions() {
+        return numberOfHashFunctions;
+    }
+
+    long[] words() {
+        long[] copy = new long[words.limit()];
+        words.get(0, copy);
+        return copy;
+    }
+
+    // Same probe positions as SimpleBloomFilter.index
+    private int index(long probe) {
+        return (int) (((probe >>> 32) * bitSetSize) >>> 32);
+    }
+}
@@ -0,0 +1,162 @@
+package org.anay;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// MurmurHash3 x64 128-bit (Austin Appleby, public domain). Output matches the
+// reference implementation and Guava's Hashing.murmur3_128(seed).
+final class Murmur3 {
+
+    // Seed every filter uses, so filters built by different runs agree
+    static final long SEED = 0;
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private Murmur3() {
+    }
+
+    // Hashes the UTF-8 bytes of `data` into out[0] (h1) and out[1] (h2).
+    static void hash128(String data, long[] out) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        hash128(bytes, 0, bytes.length, SEED, out);
+    }
+
+    static void hash128(byte[] data, int offset, int length, long seed, long[] out) {
+        long h1 = seed;
+        long h2 = seed;
+        int end = offset + (length & ~15);
+        for (int i = offset; i < end; i += 16) {
+            long k1 = (long) LONG_LE.get(data, i);
+            long k2 = (long) LONG_LE.get(data, i + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // The tail is read in its own methods, which keeps this one small
+        // enough to inline, so callers' `out` arrays need not be allocated
+        int tail = length & 15;
+        if (tail > 8) {
+            h2 ^= mixK2(tailK2(data, end, tail));
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(tailK1(data, end, tail));
+        }
+        finish(h1, h2, length, out);
+    }
+
+    // Same hash as hash128(byte[], ...) over the bytes at [offset, offset +
+    // length) of `data`, heap or direct. Ignores and keeps the buffer's
+    // position, limit and byte order.
+    static void hash128(ByteBuffer data, int offset, int length, long seed, long[] out) {
+        if (data.hasArray()) {
+            hash128(data.array(), data.arrayOffset() + offset, length, seed, out);
+            return;
+        }
+        long h1 = seed;
+        long h2 = seed;
+        int end = offset + (length & ~15);
+        for (int i = offset; i < end; i += 16) {
+            long k1 = (long) BUFFER_LONG_LE.get(data, i);
+            long k2 = (long) BUFFER_LONG_LE.get(data, i + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = length & 15;
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = tail - 1; i >= 8; i--) {
+            k2 = k2 << 8 | (data.get(end + i) & 0xff);
+        }
+        for (int i = Math.min(tail, 8) - 1; i >= 0; i--) {
+            k1 = k1 << 8 | (data.get(end + i) & 0xff);
+        }
+        if (tail > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(k1);
+        }
+        finish(h1, h2, length, out);
+    }
+
+    // Same hash as the 8 little-endian bytes of `key` (Guava's hashLong)
+    static void hash128(long key, long seed, long[] out) {
+        finish(seed ^ mixK1(key), seed, Long.BYTES, out);
+    }
+
+    private static long tailK1(byte[] data, int end, int tail) {
+        long k1 = 0;
+        switch (Math.min(tail, 8)) {
+            case 8: k1 ^= (long) (data[end + 7] & 0xff) << 56;
+            case 7: k1 ^= (long) (data[end + 6] & 0xff) << 48;
+            case 6: k1 ^= (long) (data[end + 5] & 0xff) << 40;
+            case 5: k1 ^= (long) (data[end + 4] & 0xff) << 32;
+            case 4: k1 ^= (long) (data[end + 3] & 0xff) << 24;
+            case 3: k1 ^= (long) (data[end + 2] & 0xff) << 16;
+            case 2: k1 ^= (long) (data[end + 1] & 0xff) << 8;
+            case 1: k1 ^= data[end] & 0xff;
+            default:
+        }
+        return k1;
+    }
+
+    private static long tailK2(byte[] data, int end, int tail) {
+        long k2 = 0;
+        switch (tail) {
+            case 15: k2 ^= (long) (data[end + 14] & 0xff) << 48;
+            case 14: k2 ^= (long) (data[end + 13] & 0xff) << 40;
+            case 13: k2 ^= (long) (data[end + 12] & 0xff) << 32;
+            case 12: k2 ^= (long) (data[end + 11] & 0xff) << 24;
+            case 11: k2 ^= (long) (data[end + 10] & 0xff) << 16;
+            case 10: k2 ^= (long) (data[end + 9] & 0xff) << 8;
+            case 9: k2 ^= data[end + 8] & 0xff;
+            default:
+        }
+        return k2;
+    }
+
+    private static void finish(long h1, long h2, int length, long[] out) {
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        out[0] = h1;
+        out[1] = h2;
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
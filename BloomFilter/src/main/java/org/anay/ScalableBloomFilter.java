@@ -1,38 +1,205 @@
 package org.anay;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.function.BiFunction;
 
-public class ScalableBloomFilter {
+// Scalable Bloom filter (Almeida, Baquero, Preguica, Hutchison 2007). When
+// the newest layer is full a new one is appended that is `growth` times
+// larger and whose fpp is `tightening` times smaller. With the first layer at
+// fpp * (1 - tightening), the layers' false positive rates form a geometric
+// series whose sum stays below fpp however many layers are added.
+public class ScalableBloomFilter implements BloomFilter {
 
-    private final List<SimpleBloomFilter> filters = new ArrayList<>();
+    public static final int DEFAULT_GROWTH = 2;
+    public static final double DEFAULT_TIGHTENING = 0.85;
+    // Below a few thousand bits a layer's measured false positive rate is
+    // several times its formula's, and the first layers of a filter started
+    // at capacity 1 or 10 would spend the whole fpp budget on their own
+    static final int MIN_LAYER_CAPACITY = 64;
+
+    // Copy-on-write: a new layer is published as a new array, so readers
+    // never lock and always see a complete list of layers
+    private volatile BloomFilter[] filters;
+    private final BiFunction<Integer, Double, BloomFilter> layerFactory;
     private final int initialCapacity;
     private final double fpp;
-    private int currentElementCount = 0;
+    private final int growth;
+    private final double tightening;
+    // Whether layers are ConcurrentBloomFilter, so load() can restore it
+    private final boolean concurrent;
 
+    // fpp is the target for the whole filter, not for each layer.
     public ScalableBloomFilter(int initialCapacity, double fpp){
+        this(initialCapacity, fpp, DEFAULT_GROWTH, DEFAULT_TIGHTENING);
+    }
+
+    // growth is usually 2 (slow growth, less memory) or 4 (fast growth, fewer
+    // layers); tightening between 0.5 and 0.9.
+    public ScalableBloomFilter(int initialCapacity, double fpp, int growth, double tightening) {
+        this(initialCapacity, fpp, growth, tightening, SimpleBloomFilter::new, false, null);
+    }
+
+    // Safe to share between threads: ConcurrentBloomFilter layers, and
+    // growing only blocks other writers that also found the last layer full.
+    public static ScalableBloomFilter concurrent(int initialCapacity, double fpp) {
+        return concurrent(initialCapacity, fpp, DEFAULT_GROWTH, DEFAULT_TIGHTENING);
+    }
+
+    public static ScalableBloomFilter concurrent(int initialCapacity, double fpp, int growth, double tightening) {
+        return new ScalableBloomFilter(initialCapacity, fpp, growth, tightening, ConcurrentBloomFilter::new, true, null);
+    }
+
+    // CuckooFilter layers, which support remove(). A cuckoo layer is smaller
+    // than a Bloom layer below about 0.2% fpp, and with the default
+    // tightening every layer of a 1% filter is below that. These filters
+    // cannot be saved: the BloomFilterFile format only holds Bloom layers.
+    public static Cuckoo cuckoo(int initialCapacity, double fpp) {
+        return new Cuckoo(initialCapacity, fpp);
+    }
+
+    // Maps a file written by writeTo(). The saved layers are answered from
+    // the mapping and never written; new strings go to in-memory layers that
+    // continue the same growth and tightening series, ConcurrentBloomFilter
+    // ones if the filter was saved from concurrent().
+    public static ScalableBloomFilter load(Path path) throws IOException {
+        BloomFilterFile file = BloomFilterFile.map(path);
+        if (file.growth == 0) {
+            throw new IOException(path + ": holds a single filter, load it with SimpleBloomFilter.load");
+        }
+        // Copied into a BloomFilter[] so that growing can store in-memory layers
+        return new ScalableBloomFilter(file.initialCapacity, file.fpp, file.growth, file.tightening,
+                file.concurrent ? ConcurrentBloomFilter::new : SimpleBloomFilter::new, file.concurrent,
+                Arrays.copyOf(file.layers, file.layers.length, BloomFilter[].class));
+    }
+
+    // layers == null starts with one empty layer
+    private ScalableBloomFilter(int initialCapacity, double fpp, int growth, double tightening,
+                                BiFunction<Integer, Double, BloomFilter> layerFactory, boolean concurrent,
+                                BloomFilter[] layers) {
+        if (growth < 1) {
+            throw new IllegalArgumentException("growth must be at least 1: " + growth);
+        }
+        if (tightening <= 0 || tightening >= 1) {
+            throw new IllegalArgumentException("tightening must be in (0, 1): " + tightening);
+        }
         this.initialCapacity = initialCapacity;
         this.fpp = fpp;
-        addNewFilter();
+        this.growth = growth;
+        this.tightening = tightening;
+        this.layerFactory = layerFactory;
+        this.concurrent = concurrent;
+        this.filters = layers != null ? layers : new BloomFilter[]{newLayer(0)};
     }
 
-    private void addNewFilter(){
-        filters.add(new SimpleBloomFilter(initialCapacity,fpp));
+    // Appends a layer unless another writer already replaced `full`; returns
+    // the layer to add to.
+    private synchronized BloomFilter addNewFilter(BloomFilter full){
+        BloomFilter[] current = filters;
+        BloomFilter last = current[current.length - 1];
+        if (last != full) {
+            return last;
+        }
+        BloomFilter[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = newLayer(current.length);
+        filters = grown;
+        return grown[current.length];
     }
 
-    public void add(String username){
-        if(filters.get(filters.size()-1).isFull())
-            addNewFilter();
-        filters.get(filters.size()-1).add(username);
-        currentElementCount++;
+    private BloomFilter newLayer(int layer) {
+        double layerFpp = layerFpp(layer);
+        // Capped so the layer's bit count still fits in an int, with room for
+        // SimpleBloomFilter.optimalBitSize rounding up
+        double maxCapacity = Integer.MAX_VALUE * 0.98 * Math.pow(Math.log(2), 2) / -Math.log(layerFpp);
+        double capacity = Math.min(Math.max(MIN_LAYER_CAPACITY, initialCapacity * Math.pow(growth, layer)), maxCapacity);
+        return layerFactory.apply((int) capacity, layerFpp);
     }
 
-    public boolean mightContain(String username){
-        return filters.stream().anyMatch(filter->filter.mightContain(username));
+    private double layerFpp(int layer) {
+        return fpp * (1 - tightening) * Math.pow(tightening, layer);
+    }
+
+    @Override
+    public void addHash(long h1, long h2){
+        BloomFilter[] current = filters;
+        BloomFilter last = current[current.length - 1];
+        if(last.isFull())
+            last = addNewFilter(last);
+        last.addHash(h1, h2);
+    }
+
+    // The String, byte and long forms hash once for all layers. Newest layer
+    // first: it is the largest and holds the most strings.
+    @Override
+    public boolean mightContainHash(long h1, long h2){
+        BloomFilter[] current = filters;
+        for (int i = current.length - 1; i >= 0; i--) {
+            if (current[i].mightContainHash(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Each layer skips the keys a newer layer already answered
+    @Override
+    public void mightContainHashes(long[] h1, long[] h2, int count, BitSet results) {
+        BloomFilter[] current = filters;
+        for (int i = current.length - 1; i >= 0; i--) {
+            current[i].mightContainHashes(h1, h2, count, results);
+        }
+    }
+
+    // Saves every layer in the BloomFilterFile format, for load() on the next
+    // start. Strings added while this runs may or may not be in the file.
+    public void writeTo(Path path) throws IOException {
+        BloomFilterFile.write(path, growth, fpp, tightening, initialCapacity, concurrent, filters);
+    }
+
+    // Never full: a full layer just starts a new one
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    public int getInsertedCount() {
+        return Arrays.stream(filters).mapToInt(BloomFilter::getInsertedCount).sum();
+    }
+
+    @Override
+    public long bitSize() {
+        return Arrays.stream(filters).mapToLong(BloomFilter::bitSize).sum();
+    }
+
+    public int getLayerCount() {
+        return filters.length;
+    }
+
+    BloomFilter[] layers() {
+        return filters;
+    }
+
+    // Upper bound on the false positive rate with every layer full:
+    // 1 - product of (1 - layer fpp). Always below fpp.
+    public double getEffectiveFpp() {
+        double allNegative = 1;
+        for (int i = 0; i < filters.length; i++) {
+            allNegative *= 1 - layerFpp(i);
+        }
+        return 1 - allNegative;
+    }
+
+    public long getMemoryBytes() {
+        return bitSize() / 8;
     }
 
     public void printStats(List<String> realDatabase) {
-        int totalItems = filters.stream().mapToInt(SimpleBloomFilter::getInsertedCount).sum();
+        BloomFilter[] filters = this.filters;
+        int totalItems = Arrays.stream(filters).mapToInt(BloomFilter::getInsertedCount).sum();
 
         // To calculate False Positives, we check names we KNOW are NOT in the DB
         int falsePositives = 0;
@@ -46,11 +213,51 @@ public class ScalableBloomFilter {
         }
 
         System.out.println("--- Bloom Filter Statistics ---");
-        System.out.println("Total Layers (Filters): " + filters.size());
+        System.out.println("Total Layers (Filters): " + filters.length);
         System.out.println("Total Usernames Added:  " + totalItems);
+        System.out.printf("Effective FPP Bound:    %.4f%% (target %.4f%%)\n", getEffectiveFpp() * 100, fpp * 100);
+        System.out.printf("Memory Footprint:       %.1f KB (%.2f bits per username)\n",
+                getMemoryBytes() / 1024.0, getMemoryBytes() * 8.0 / Math.max(1, totalItems));
         System.out.println("False Positive Count:   " + falsePositives + " (out of " + tests + " random tests)");
         System.out.printf("Actual Error Rate:      %.2f%%\n", (falsePositives / (double) tests) * 100);
         System.out.println("-------------------------------");
     }
 
+    // A ScalableBloomFilter of CuckooFilter layers, from cuckoo(): the only
+    // kind that can remove strings, and the only kind that cannot be saved.
+    public static final class Cuckoo extends ScalableBloomFilter implements DeletableFilter {
+
+        private Cuckoo(int initialCapacity, double fpp) {
+            super(initialCapacity, fpp, DEFAULT_GROWTH, DEFAULT_TIGHTENING, CuckooFilter::new, false, null);
+        }
+
+        // Unsupported: BloomFilterFile has no layout for cuckoo buckets.
+        // Rebuild the filter from the source data on the next start instead.
+        @Override
+        public void writeTo(Path path) {
+            throw new UnsupportedOperationException("a cuckoo ScalableBloomFilter cannot be saved");
+        }
+
+        // Only for strings that were added. The string is removed from its
+        // layer if exactly one layer might hold it. If several do, the others
+        // are false positives for it and there is no telling which layer is
+        // its own; removing the wrong one would make a different string
+        // vanish, so it stays in as a false positive.
+        //
+        // Returns true only if the string was removed: false if no layer
+        // might hold it, or if several might and it was left in.
+        @Override
+        public boolean removeHash(long h1, long h2) {
+            DeletableFilter holder = null;
+            for (BloomFilter layer : layers()) {
+                if (layer.mightContainHash(h1, h2)) {
+                    if (holder != null) {
+                        return false;
+                    }
+                    holder = (DeletableFilter) layer;
+                }
+            }
+            return holder != null && holder.removeHash(h1, h2);
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package org.anay;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Objects;
 
-public class SimpleBloomFilter {
+public class SimpleBloomFilter implements BloomFilter {
 
     private final int capacity;
     private final BitSet bits;
@@ -14,23 +16,21 @@ public class SimpleBloomFilter {
     // ffp stands for false positive probability. if it is 0.01 that mean 1% of all check can be false positive
     public SimpleBloomFilter(int capacity, double fpp) {
         this.capacity = capacity;
-        // Formula: m = -(n * ln(p)) / (ln(2)^2)
-        this.bitSetSize = (int) (-(capacity * Math.log(fpp)) / (Math.pow(Math.log(2), 2)));
-        // Formula: k = (m / n) * ln(2)
-        this.numberOfHashFunctions = Math.max(1, (int) Math.round((double) bitSetSize / capacity * Math.log(2)));
+        this.numberOfHashFunctions = optimalHashFunctions(fpp);
+        this.bitSetSize = bitSetSize(capacity, fpp, numberOfHashFunctions);
         this.bits = new BitSet(bitSetSize);
     }
 
-    public void add(String data){
+    public void addHash(long h1, long h2){
         for(int i=0;i<numberOfHashFunctions;i++){
-            bits.set(getHash(data,i));
+            bits.set(index(probe(h1, h2, i)));
         }
         insertedCount++;
     }
 
-    public boolean mightContain(String data){
+    public boolean mightContainHash(long h1, long h2){
         for(int i=0;i<numberOfHashFunctions;i++){
-            if(!bits.get(getHash(data,i))){
+            if(!bits.get(index(probe(h1, h2, i)))){
                 return false;
             }
 
@@ -42,21 +42,43 @@ public class SimpleBloomFilter {
         return insertedCount>=capacity;
     }
 
-    /*public int getHash(String data, int seed){
-        int hash = Objects.hash(data,seed);
-        return Math.abs(hash%bitSetSize);
-    }*/
+    // Formula: k = (m / n) * ln(2) for m = -(n * ln(p)) / (ln(2)^2), which
+    // is log2(1 / p), rounded to a whole number of probes
+    static int optimalHashFunctions(double fpp) {
+        return Math.max(1, (int) Math.round(-Math.log(fpp) / Math.log(2)));
+    }
 
-    private int getHash(String data, int index) {
-        // Generate two different base hashes
-        int hash1 = data.hashCode();
-        int hash2 = (hash1 >>> 16) ^ (hash1 * 0x85ebca6b); // A simple "mixer"
+    // Formula: m = -(k * n) / ln(1 - p^(1/k)), the bits at which k probes
+    // give exactly p. With the rounded k this is within 1% of
+    // -(n * ln(p)) / (ln(2)^2), but never leaves the filter above p.
+    static long optimalBitSize(long capacity, double fpp, int numberOfHashFunctions) {
+        return Math.max(1, (long) Math.ceil(-numberOfHashFunctions * capacity / Math.log1p(-Math.pow(fpp, 1.0 / numberOfHashFunctions))));
+    }
 
-        // Combine them using the index: hash = hash1 + (index * hash2)
-        // This is a standard way to simulate multiple independent hash functions
-        int combinedHash = hash1 + (index * hash2);
+    // optimalBitSize for the filters that index bits with an int
+    static int bitSetSize(long capacity, double fpp, int numberOfHashFunctions) {
+        long bits = optimalBitSize(capacity, fpp, numberOfHashFunctions);
+        if (bits > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(capacity + " strings at fpp " + fpp + " need " + bits
+                    + " bits, more than the " + Integer.MAX_VALUE + " a filter can hold");
+        }
+        return (int) bits;
+    }
 
-        return Math.abs(combinedHash % bitSetSize);
+    // Probe i is h1 + i * h2 + i(i - 1)/2 * h3, with h3 derived from h1
+    // (enhanced double hashing, Dillinger and Manolios 2004): one 128-bit
+    // hash stands in for k independent ones. Plain h1 + i * h2 is an
+    // arithmetic progression that lands all k probes on a few bits whenever
+    // h2 is close to a simple fraction of the table, which happens about
+    // once per m keys and made small filters 5-20x worse than their fpp.
+    static long probe(long h1, long h2, int i) {
+        return h1 + i * h2 + (i * (i - 1L) >> 1) * (h1 * 0x9e3779b97f4a7c15L);
+    }
+
+    // The top 32 bits of a probe are scaled to [0, bitSetSize) with a multiply
+    // and shift, which is unbiased enough and avoids %.
+    private int index(long probe) {
+        return (int) (((probe >>> 32) * bitSetSize) >>> 32);
     }
 
 
@@ -64,6 +86,36 @@ public class SimpleBloomFilter {
         return insertedCount;
     }
 
+    public long bitSize() {
+        return bitSetSize;
+    }
+
+    // Saves the bits in the BloomFilterFile format, for load() on the next start.
+    public void writeTo(Path path) throws IOException {
+        BloomFilterFile.write(path, 0, 0, 0, 0, false, new BloomFilter[]{this});
+    }
 
+    // Maps a file written by writeTo(). The result answers mightContain from
+    // the mapping and cannot be added to.
+    public static MappedBloomFilter load(Path path) throws IOException {
+        BloomFilterFile file = BloomFilterFile.map(path);
+        if (file.layers.length != 1) {
+            throw new IOException(path + ": holds " + file.layers.length + " layers, load it with ScalableBloomFilter.load");
+        }
+        return file.layers[0];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int hashFunctions() {
+        return numberOfHashFunctions;
+    }
+
+    // toLongArray() drops trailing zero words; the file keeps all of them
+    long[] words() {
+        return Arrays.copyOf(bits.toLongArray(), BloomFilterFile.wordCount(bitSetSize));
+    }
 
 }
@@ -0,0 +1,108 @@
+package org.anay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+/**
+ * Startup time of a filter over N usernames: re-adding every username (what
+ * Main does) against load() of a file saved by writeTo(), for
+ * SimpleBloomFilter and a ScalableBloomFilter grown from N / 1000.
+ *
+ * Each loaded filter must answer every probe exactly like the filter it was
+ * saved from, or the run fails. Lookup ns/op is reported for both; the file
+ * was just written, so its pages are in the OS page cache and the first
+ * lookups do not wait for the disk. Against a cold cache the first lookups
+ * each pay a page fault and a read.
+ *
+ * Usage: java org.anay.StartupBenchmark [users] [fpp] [dir]
+ */
+public class StartupBenchmark {
+
+    private static final int PROBES = 2_000_000;
+
+    public static void main(String[] args) throws IOException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        double fpp = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+        Path dir = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("bloom");
+
+        SplittableRandom random = new SplittableRandom(42);
+        String[] probes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            // Half present, half never added
+            probes[i] = i % 2 == 0 ? "user_" + random.nextInt(users) : "!" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        }
+
+        System.out.println(String.format("%d users, fpp %.4f, files in %s", users, fpp, dir));
+        System.out.println(String.format("%-10s %7s %12s %10s %10s %10s %12s %12s",
+                "filter", "layers", "populate ms", "write ms", "load ms", "file MB", "heap ns/op", "mapped ns/op"));
+
+        long t0 = System.nanoTime();
+        SimpleBloomFilter simple = new SimpleBloomFilter(users, fpp);
+        for (int i = 0; i < users; i++) {
+            simple.add("user_" + i);
+        }
+        long populate = System.nanoTime() - t0;
+        Path simpleFile = dir.resolve("simple.bloom");
+        t0 = System.nanoTime();
+        simple.writeTo(simpleFile);
+        long write = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        MappedBloomFilter mapped = SimpleBloomFilter.load(simpleFile);
+        long load = System.nanoTime() - t0;
+        report("simple", 1, populate, write, load, Files.size(simpleFile),
+                verify("simple", simple::mightContain, mapped::mightContain, probes));
+
+        t0 = System.nanoTime();
+        ScalableBloomFilter scalable = new ScalableBloomFilter(Math.max(1, users / 1000), fpp);
+        for (int i = 0; i < users; i++) {
+            scalable.add("user_" + i);
+        }
+        populate = System.nanoTime() - t0;
+        Path scalableFile = dir.resolve("scalable.bloom");
+        t0 = System.nanoTime();
+        scalable.writeTo(scalableFile);
+        write = System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        ScalableBloomFilter loaded = ScalableBloomFilter.load(scalableFile);
+        load = System.nanoTime() - t0;
+        report("scalable", loaded.getLayerCount(), populate, write, load, Files.size(scalableFile),
+                verify("scalable", scalable::mightContain, loaded::mightContain, probes));
+
+        // A loaded filter keeps growing in memory
+        loaded.add("user_" + users);
+        if (!loaded.mightContain("user_" + users) || loaded.getLayerCount() != scalable.getLayerCount() + 1) {
+            throw new IllegalStateException("scalable: add after load did not start a new layer");
+        }
+    }
+
+    private static void report(String label, int layers, long populate, long write, long load, long bytes, double[] nanos) {
+        System.out.println(String.format("%-10s %7d %12.1f %10.1f %10.3f %10.1f %12.1f %12.1f",
+                label, layers, populate / 1e6, write / 1e6, load / 1e6, bytes / 1048576.0, nanos[0], nanos[1]));
+    }
+
+    // Fails on any probe the two filters answer differently; returns ns per
+    // lookup of each, from a second pass so both are warmed up.
+    private static double[] verify(String label, Predicate<String> heap,
+                                   Predicate<String> mapped, String[] probes) {
+        for (String probe : probes) {
+            if (heap.test(probe) != mapped.test(probe)) {
+                throw new IllegalStateException(label + ": loaded filter disagrees on " + probe);
+            }
+        }
+        return new double[]{time(heap, probes), time(mapped, probes)};
+    }
+
+    private static double time(Predicate<String> filter, String[] probes) {
+        long t0 = System.nanoTime();
+        int hits = 0;
+        for (String probe : probes) {
+            if (filter.test(probe)) hits++;
+        }
+        long nanos = System.nanoTime() - t0;
+        if (hits == 0) throw new IllegalStateException("no hits");
+        return (double) nanos / probes.length;
+    }
+}
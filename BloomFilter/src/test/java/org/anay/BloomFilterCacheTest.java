@@ -0,0 +1,99 @@
+package org.anay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterCacheTest {
+
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+    private final AtomicInteger storeCalls = new AtomicInteger();
+
+    private BloomFilterCache<String> cacheOf(BloomFilter filter) {
+        return new BloomFilterCache<>(filter, key -> {
+            storeCalls.incrementAndGet();
+            return store.get(key);
+        }, 100);
+    }
+
+    @Test
+    void answersFromFilterCacheAndStore() {
+        store.put("alice", "A");
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(1000, 0.001);
+        filter.add("alice");
+        BloomFilterCache<String> cache = cacheOf(filter);
+
+        assertNull(cache.get("bob"));
+        assertEquals("A", cache.get("alice"));
+        assertEquals("A", cache.get("alice"));
+        assertEquals(1, cache.getFilterRejectedCount());
+        assertEquals(1, cache.getStoreHitCount());
+        assertEquals(1, cache.getCacheHitCount());
+        assertEquals(1, storeCalls.get());
+
+        store.put("bob", "B");
+        cache.put("bob", "B");
+        assertEquals("B", cache.get("bob"));
+        assertEquals(1, storeCalls.get());
+    }
+
+    @Test
+    void staleReadIsNotCachedAfterInvalidate() throws InterruptedException {
+        assertStaleReadDropped(false);
+    }
+
+    @Test
+    void staleReadIsNotCachedAfterPut() throws InterruptedException {
+        assertStaleReadDropped(true);
+    }
+
+    // A get() reads the old value from the store, then the key is written
+    // or deleted and the cache told, and only then does the get() finish.
+    private void assertStaleReadDropped(boolean rewrite) throws InterruptedException {
+        store.put("alice", "old");
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(1000, 0.001);
+        filter.add("alice");
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        BloomFilterCache<String> cache = new BloomFilterCache<>(filter, key -> {
+            storeCalls.incrementAndGet();
+            String value = store.get(key);
+            read.countDown();
+            try {
+                changed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        }, 100);
+
+        AtomicReference<String> seen = new AtomicReference<>();
+        Thread reader = new Thread(() -> seen.set(cache.get("alice")));
+        reader.start();
+        assertTrue(read.await(5, TimeUnit.SECONDS));
+        if (rewrite) {
+            store.put("alice", "new");
+            cache.put("alice", "new");
+        } else {
+            store.remove("alice");
+            cache.invalidate("alice");
+        }
+        changed.countDown();
+        reader.join();
+        assertEquals("old", seen.get());
+
+        // The next get() must not see "old": from the cache after put(), from
+        // a fresh store call after invalidate()
+        assertEquals(rewrite ? "new" : null, cache.get("alice"));
+        assertEquals(rewrite ? 1 : 2, storeCalls.get());
+    }
+}
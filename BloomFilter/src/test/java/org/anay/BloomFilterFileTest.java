@@ -0,0 +1,86 @@
+package org.anay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// writeTo/load round trips: a loaded filter answers every probe like the one
+// that was saved, keeps growing, and keeps its kind of layers.
+class BloomFilterFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void simpleFilterRoundTrips() throws IOException {
+        SimpleBloomFilter filter = new SimpleBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user_" + i);
+        }
+        Path file = dir.resolve("simple.bloom");
+        filter.writeTo(file);
+
+        MappedBloomFilter loaded = SimpleBloomFilter.load(file);
+        assertEquals(filter.getInsertedCount(), loaded.getInsertedCount());
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(filter.mightContain("user_" + i), loaded.mightContain("user_" + i), "user_" + i);
+        }
+        assertThrows(IOException.class, () -> ScalableBloomFilter.load(file));
+    }
+
+    @Test
+    void scalableFilterRoundTripsAndKeepsGrowing() throws IOException {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user_" + i);
+        }
+        Path file = dir.resolve("scalable.bloom");
+        filter.writeTo(file);
+
+        ScalableBloomFilter loaded = ScalableBloomFilter.load(file);
+        assertEquals(filter.getLayerCount(), loaded.getLayerCount());
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(filter.mightContain("user_" + i), loaded.mightContain("user_" + i), "user_" + i);
+        }
+        loaded.add("new_user");
+        assertTrue(loaded.mightContain("new_user"));
+        assertEquals(filter.getLayerCount() + 1, loaded.getLayerCount());
+        assertEquals(0, layerKind(file));
+    }
+
+    @Test
+    void concurrentScalableFilterLoadsWithConcurrentLayers() throws IOException {
+        ScalableBloomFilter filter = ScalableBloomFilter.concurrent(100, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("user_" + i);
+        }
+        Path file = dir.resolve("concurrent.bloom");
+        filter.writeTo(file);
+        assertEquals(1, layerKind(file));
+
+        // Grow past the mapped layers: the new in-memory layer must be a
+        // ConcurrentBloomFilter, and saving again must keep the flag
+        ScalableBloomFilter loaded = ScalableBloomFilter.load(file);
+        loaded.add("new_user");
+        BloomFilter[] layers = loaded.layers();
+        assertTrue(layers[layers.length - 1] instanceof ConcurrentBloomFilter,
+                "grew with " + layers[layers.length - 1].getClass().getSimpleName());
+        Path again = dir.resolve("again.bloom");
+        loaded.writeTo(again);
+        assertEquals(1, layerKind(again));
+        assertTrue(ScalableBloomFilter.load(again).mightContain("new_user"));
+    }
+
+    private static int layerKind(Path file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN).getInt(44);
+    }
+}
@@ -0,0 +1,92 @@
+package org.anay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Writer threads add disjoint usernames while reader threads look up names
+// that a writer has already finished adding. Any false negative, during the
+// run or in a final pass over every name, fails the test. The scalable
+// filter starts small so that layers are appended while readers query.
+class ConcurrentBloomFilterStressTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int PER_WRITER = 100_000;
+
+    @Test
+    void concurrentFilterHasNoFalseNegativesUnderConcurrentAdds() throws InterruptedException {
+        stress(new ConcurrentBloomFilter(WRITERS * PER_WRITER, 0.01));
+    }
+
+    @Test
+    void concurrentScalableFilterHasNoFalseNegativesWhileGrowing() throws InterruptedException {
+        ScalableBloomFilter filter = ScalableBloomFilter.concurrent(10_000, 0.01);
+        stress(filter);
+        assertTrue(filter.bitSize() > new ConcurrentBloomFilter(10_000, 0.01).bitSize(), "no layers were added");
+    }
+
+    private static void stress(BloomFilter filter) throws InterruptedException {
+        // Highest index each writer has finished adding, for readers to probe below
+        AtomicLong[] progress = new AtomicLong[WRITERS];
+        for (int w = 0; w < WRITERS; w++) {
+            progress[w] = new AtomicLong(-1);
+        }
+        AtomicLong falseNegatives = new AtomicLong();
+        AtomicLong probes = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong writersLeft = new AtomicLong(WRITERS);
+
+        List<Thread> pool = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            pool.add(new Thread(() -> {
+                for (int i = 0; i < PER_WRITER; i++) {
+                    filter.add(username(writer, i));
+                    progress[writer].set(i);
+                }
+                if (writersLeft.decrementAndGet() == 0) {
+                    writing.set(false);
+                }
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            pool.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (writing.get()) {
+                    int writer = random.nextInt(WRITERS);
+                    long done = progress[writer].get();
+                    if (done < 0) continue;
+                    probes.incrementAndGet();
+                    if (!filter.mightContain(username(writer, (int) random.nextLong(done + 1)))) {
+                        falseNegatives.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        pool.forEach(Thread::start);
+        for (Thread t : pool) {
+            t.join();
+        }
+        assertEquals(0, falseNegatives.get(), "false negatives in " + probes.get() + " concurrent probes");
+
+        for (int w = 0; w < WRITERS; w++) {
+            for (int i = 0; i < PER_WRITER; i++) {
+                if (!filter.mightContain(username(w, i))) falseNegatives.incrementAndGet();
+            }
+        }
+        assertEquals(0, falseNegatives.get(), "false negatives after all writers finished");
+        assertEquals(WRITERS * PER_WRITER, filter.getInsertedCount());
+    }
+
+    private static String username(int writer, int i) {
+        return "user_" + writer + "_" + i;
+    }
+}
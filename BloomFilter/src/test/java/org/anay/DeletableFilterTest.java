@@ -0,0 +1,87 @@
+package org.anay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// remove() forgets exactly the strings it reports removing, and never
+// another string that was added.
+class DeletableFilterTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void countingFilterRemoves() {
+        removesHalf(CountingBloomFilter::new);
+    }
+
+    @Test
+    void cuckooFilterRemoves() {
+        removesHalf(CuckooFilter::new);
+    }
+
+    @Test
+    void scalableCuckooFilterRemovesWhileGrown() {
+        removesHalf((capacity, fpp) -> ScalableBloomFilter.cuckoo(capacity / 100, fpp));
+    }
+
+    @Test
+    void scalableCuckooFilterKeepsAStringSeveralLayersMightHold() {
+        ScalableBloomFilter.Cuckoo filter = ScalableBloomFilter.cuckoo(100, 0.1);
+        for (int i = 0; i < KEYS; i++) {
+            filter.add("user_" + i);
+        }
+        long[] hash = new long[2];
+        for (int i = 0; i < KEYS; i++) {
+            Murmur3.hash128("user_" + i, hash);
+            int holders = 0;
+            for (BloomFilter layer : filter.layers()) {
+                if (layer.mightContainHash(hash[0], hash[1])) holders++;
+            }
+            if (holders > 1) {
+                assertFalse(filter.remove("user_" + i), "reported removing an ambiguous string");
+                assertTrue(filter.mightContain("user_" + i));
+                return;
+            }
+        }
+        fail("no string was held by more than one layer");
+    }
+
+    @Test
+    void scalableCuckooFilterCannotBeSaved(@TempDir Path dir) {
+        ScalableBloomFilter.Cuckoo filter = ScalableBloomFilter.cuckoo(100, 0.01);
+        filter.add("user_0");
+        assertThrows(UnsupportedOperationException.class, () -> filter.writeTo(dir.resolve("cuckoo.bloom")));
+    }
+
+    private static void removesHalf(BiFunction<Integer, Double, DeletableFilter> factory) {
+        DeletableFilter filter = factory.apply(KEYS, 0.001);
+        for (int i = 0; i < KEYS; i++) {
+            filter.add("user_" + i);
+        }
+        int removed = 0;
+        for (int i = 0; i < KEYS; i += 2) {
+            if (filter.remove("user_" + i)) removed++;
+        }
+        for (int i = 1; i < KEYS; i += 2) {
+            assertTrue(filter.mightContain("user_" + i), "removing others lost user_" + i);
+        }
+        int stillThere = 0;
+        for (int i = 0; i < KEYS; i += 2) {
+            if (filter.mightContain("user_" + i)) stillThere++;
+        }
+        // A removed string is only still reported as a false positive
+        assertTrue(removed >= KEYS / 2 * 0.99, removed + " of " + KEYS / 2 + " removed");
+        assertTrue(stillThere <= KEYS / 2 - removed + KEYS / 2 * 0.01, stillThere + " removed strings still reported");
+        assertFalse(filter.remove("never_added"));
+        assertEquals(KEYS, filter.getInsertedCount() + removed);
+    }
+}
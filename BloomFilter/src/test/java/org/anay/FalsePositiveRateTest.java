@@ -0,0 +1,86 @@
+package org.anay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The measured false positive rate of the filters that share
+// SimpleBloomFilter's sizing must stay within 20% of fpp plus four standard
+// errors, for random absent strings and for String.hashCode() twins of the
+// added ones. FalsePositiveRateCheck prints the same measurement, with
+// BlockedBloomFilter alongside.
+class FalsePositiveRateTest {
+
+    private static final int[] CAPACITIES = {1_000, 10_000, 100_000};
+    private static final double[] FPPS = {0.01, 0.001};
+    private static final int PROBES = 300_000;
+    private static final double TOLERANCE = 1.2;
+
+    @Test
+    void simpleFilterStaysWithinFpp() {
+        checkAll(SimpleBloomFilter::new);
+    }
+
+    @Test
+    void concurrentFilterStaysWithinFpp() {
+        checkAll(ConcurrentBloomFilter::new);
+    }
+
+    @Test
+    void countingFilterStaysWithinFpp() {
+        checkAll(CountingBloomFilter::new);
+    }
+
+    @Test
+    void scalableFilterStaysWithinFppWhileGrowing() {
+        // Starts at 1% of the keys, so most of them land in grown layers
+        checkAll((capacity, fpp) -> new ScalableBloomFilter(capacity / 100, fpp));
+    }
+
+    private static void checkAll(BiFunction<Integer, Double, BloomFilter> factory) {
+        for (double fpp : FPPS) {
+            for (int capacity : CAPACITIES) {
+                check(factory.apply(capacity, fpp), capacity, fpp);
+            }
+        }
+    }
+
+    private static void check(BloomFilter filter, int capacity, double fpp) {
+        String[] keys = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = "Aa_user_" + i;
+            filter.add(keys[i]);
+        }
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key), "false negative for " + key);
+        }
+
+        SplittableRandom random = new SplittableRandom(capacity);
+        int randomHits = 0;
+        for (int i = 0; i < PROBES; i++) {
+            // '!' never appears in the keys, so these are all absent
+            if (filter.mightContain("!" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36))) {
+                randomHits++;
+            }
+        }
+        int twinHits = 0;
+        for (String key : keys) {
+            if (filter.mightContain("BB" + key.substring(2))) {
+                twinHits++;
+            }
+        }
+
+        double randomRate = (double) randomHits / PROBES;
+        double twinRate = (double) twinHits / capacity;
+        String config = filter.getClass().getSimpleName() + " capacity " + capacity + " fpp " + fpp;
+        assertTrue(randomRate <= limit(fpp, PROBES), config + ": random absent strings at " + randomRate);
+        assertTrue(twinRate <= limit(fpp, capacity), config + ": hashCode twins at " + twinRate);
+    }
+
+    private static double limit(double fpp, int probes) {
+        return fpp * TOLERANCE + 4 * Math.sqrt(fpp * (1 - fpp) / probes);
+    }
+}